@@ -35,7 +35,8 @@ CREATE TABLE `tb_article`  (
   `status` tinyint(1) NOT NULL DEFAULT 1 COMMENT '状态值 1公开 2私密 3评论可见',
   `create_time` datetime NOT NULL COMMENT '发表时间',
   `update_time` datetime NULL DEFAULT NULL COMMENT '更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_article_top`(`is_delete`, `status`, `is_top`, `id`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 55 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -93,7 +94,8 @@ CREATE TABLE `tb_chat_record`  (
   `type` tinyint NOT NULL COMMENT '类型',
   `create_time` datetime NOT NULL COMMENT '创建时间',
   `update_time` datetime NULL DEFAULT NULL COMMENT '更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_create_time`(`create_time`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 2990 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -118,7 +120,8 @@ CREATE TABLE `tb_comment`  (
   `update_time` datetime NULL DEFAULT NULL COMMENT '更新时间',
   PRIMARY KEY (`id`) USING BTREE,
   INDEX `fk_comment_user`(`user_id`) USING BTREE,
-  INDEX `fk_comment_parent`(`parent_id`) USING BTREE
+  INDEX `fk_comment_parent`(`parent_id`) USING BTREE,
+  INDEX `idx_comment_topic`(`topic_id`, `type`, `id`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 724 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -341,7 +344,7 @@ CREATE TABLE `tb_resource`  (
   `create_time` datetime NOT NULL COMMENT '创建时间',
   `update_time` datetime NULL DEFAULT NULL COMMENT '修改时间',
   PRIMARY KEY (`id`) USING BTREE
-) ENGINE = InnoDB AUTO_INCREMENT = 287 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
+) ENGINE = InnoDB AUTO_INCREMENT = 290 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
 -- Records of tb_resource
@@ -467,6 +470,8 @@ INSERT INTO `tb_resource` VALUES (284, '保存或修改说说', '/admin/talks',
 INSERT INTO `tb_resource` VALUES (285, '删除说说', '/admin/talks', 'DELETE', 278, 0, '2022-01-24 01:31:22', NULL);
 INSERT INTO `tb_resource` VALUES (286, '查看后台说说', '/admin/talks', 'GET', 278, 0, '2022-01-24 01:31:38', NULL);
 INSERT INTO `tb_resource` VALUES (287, '根据id查看后台说说', '/admin/talks/*', 'GET', 278, 0, '2022-01-24 01:31:53', '2022-01-24 01:33:14');
+INSERT INTO `tb_resource` VALUES (288, '查看归档操作日志', '/admin/operation/logs/archive', 'GET', 169, 0, '2022-01-24 01:35:00', NULL);
+INSERT INTO `tb_resource` VALUES (289, '查看访问统计', '/admin/visits', 'GET', 166, 0, '2022-01-24 01:36:00', NULL);
 
 -- ----------------------------
 -- Table structure for tb_role
@@ -634,7 +639,7 @@ CREATE TABLE `tb_role_resource`  (
   `role_id` int NULL DEFAULT NULL COMMENT '角色id',
   `resource_id` int NULL DEFAULT NULL COMMENT '权限id',
   PRIMARY KEY (`id`) USING BTREE
-) ENGINE = InnoDB AUTO_INCREMENT = 4885 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
+) ENGINE = InnoDB AUTO_INCREMENT = 4890 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
 -- Records of tb_role_resource
@@ -775,6 +780,10 @@ INSERT INTO `tb_role_resource` VALUES (4882, 3, 210);
 INSERT INTO `tb_role_resource` VALUES (4883, 3, 282);
 INSERT INTO `tb_role_resource` VALUES (4884, 3, 286);
 INSERT INTO `tb_role_resource` VALUES (4885, 3, 287);
+INSERT INTO `tb_role_resource` VALUES (4886, 1, 288);
+INSERT INTO `tb_role_resource` VALUES (4887, 3, 288);
+INSERT INTO `tb_role_resource` VALUES (4888, 1, 289);
+INSERT INTO `tb_role_resource` VALUES (4889, 3, 289);
 
 -- ----------------------------
 -- Table structure for tb_tag
@@ -806,7 +815,8 @@ CREATE TABLE `tb_talk`  (
   `status` tinyint(1) NOT NULL DEFAULT 1 COMMENT '状态 1.公开 2.私密',
   `create_time` datetime NOT NULL COMMENT '创建时间',
   `update_time` datetime NULL DEFAULT NULL COMMENT '更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_talk_top`(`status`, `is_top`, `id`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 49 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -823,7 +833,8 @@ CREATE TABLE `tb_unique_view`  (
   `views_count` int NOT NULL COMMENT '访问量',
   `create_time` datetime NOT NULL COMMENT '创建时间',
   `update_time` datetime NULL DEFAULT NULL COMMENT '更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_create_time`(`create_time`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 534 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -895,6 +906,25 @@ CREATE TABLE `tb_user_role`  (
 INSERT INTO `tb_user_role` VALUES (1001, 1, 1);
 INSERT INTO `tb_user_role` VALUES (1002, 1005, 2);
 
+-- ----------------------------
+-- Table structure for tb_visit_stat
+-- ----------------------------
+DROP TABLE IF EXISTS `tb_visit_stat`;
+CREATE TABLE `tb_visit_stat`  (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `visit_hour` datetime NOT NULL COMMENT '统计小时',
+  `unique_view` int NOT NULL DEFAULT 0 COMMENT '访客数',
+  `page_view` int NOT NULL DEFAULT 0 COMMENT '页面访问量',
+  `create_time` datetime NOT NULL COMMENT '创建时间',
+  `update_time` datetime NULL DEFAULT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_visit_hour`(`visit_hour`) USING BTREE
+) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Records of tb_visit_stat
+-- ----------------------------
+
 -- ----------------------------
 -- Table structure for tb_website_config
 -- ----------------------------
@@ -0,0 +1,15 @@
+package com.minzheng.blog.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 分页查询注解，标注的接口才会解析分页参数
+ *
+ * @author yezhiqiu
+ * @date 2021/07/28
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Paging {
+}
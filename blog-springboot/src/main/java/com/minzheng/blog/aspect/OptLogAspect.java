@@ -1,13 +1,11 @@
 package com.minzheng.blog.aspect;
 
-import com.alibaba.fastjson.JSON;
-import com.minzheng.blog.annotation.OptLog;
-import com.minzheng.blog.dao.OperationLogDao;
+import com.minzheng.blog.cache.OperationLogBuffer;
 import com.minzheng.blog.entity.OperationLog;
+import com.minzheng.blog.handler.HandlerMetadataRegistry;
 import com.minzheng.blog.util.IpUtils;
+import com.minzheng.blog.util.LogPayloadUtils;
 import com.minzheng.blog.util.UserUtils;
-import io.swagger.annotations.Api;
-import io.swagger.annotations.ApiOperation;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
@@ -15,14 +13,19 @@ import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 
 import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Objects;
 
+import static com.minzheng.blog.enums.ZoneEnum.SHANGHAI;
+
 /**
  * 操作日志切面处理
  *
@@ -34,7 +37,15 @@ import java.util.Objects;
 public class OptLogAspect {
 
     @Autowired
-    private OperationLogDao operationLogDao;
+    private OperationLogBuffer operationLogBuffer;
+    @Autowired
+    private HandlerMetadataRegistry handlerMetadataRegistry;
+
+    /**
+     * 请求参数和返回结果的最大记录字节数
+     */
+    @Value("${operation-log.max-payload-size:10240}")
+    private int maxPayloadSize;
 
     /**
      * 设置操作日志切入点 记录操作日志 在注解的位置切入代码
@@ -50,51 +61,41 @@ public class OptLogAspect {
      * @param keys      返回结果
      */
     @AfterReturning(value = "optLogPointCut()", returning = "keys")
-    @SuppressWarnings("unchecked")
     public void saveOptLog(JoinPoint joinPoint, Object keys) {
         // 获取RequestAttributes
         RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
         // 从获取RequestAttributes中获取HttpServletRequest的信息
         HttpServletRequest request = (HttpServletRequest) Objects.requireNonNull(requestAttributes).resolveReference(RequestAttributes.REFERENCE_REQUEST);
         OperationLog operationLog = new OperationLog();
-        // 从切面织入点处通过反射机制获取织入点处的方法
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        // 获取切入点所在的方法
-        Method method = signature.getMethod();
-        // 获取操作
-        Api api = (Api) signature.getDeclaringType().getAnnotation(Api.class);
-        ApiOperation apiOperation = method.getAnnotation(ApiOperation.class);
-        OptLog optLog = method.getAnnotation(OptLog.class);
+        // 从注册表获取织入点方法的操作信息
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        HandlerMetadataRegistry.HandlerMetadata metadata = handlerMetadataRegistry.getMetadata(method);
         // 操作模块
-        operationLog.setOptModule(api.tags()[0]);
+        operationLog.setOptModule(metadata.getOptModule());
         // 操作类型
-        operationLog.setOptType(optLog.optType());
+        operationLog.setOptType(metadata.getOptLog().optType());
         // 操作描述
-        operationLog.setOptDesc(apiOperation.value());
-        // 获取请求的类名
-        String className = joinPoint.getTarget().getClass().getName();
-        // 获取请求的方法名
-        String methodName = method.getName();
-        methodName = className + "." + methodName;
+        operationLog.setOptDesc(metadata.getOptDesc());
         // 请求方式
         operationLog.setRequestMethod(Objects.requireNonNull(request).getMethod());
         // 请求方法
-        operationLog.setOptMethod(methodName);
+        operationLog.setOptMethod(metadata.getOptMethod());
         // 请求参数
-        operationLog.setRequestParam(JSON.toJSONString(joinPoint.getArgs()));
+        operationLog.setRequestParam(LogPayloadUtils.toArgsString(joinPoint.getArgs(), maxPayloadSize));
         // 返回结果
-        operationLog.setResponseData(JSON.toJSONString(keys));
+        operationLog.setResponseData(LogPayloadUtils.toJsonString(keys, maxPayloadSize));
         // 请求用户ID
         operationLog.setUserId(UserUtils.getLoginUser().getId());
         // 请求用户
         operationLog.setNickname(UserUtils.getLoginUser().getNickname());
-        // 请求IP
-        String ipAddress = IpUtils.getIpAddress(request);
-        operationLog.setIpAddress(ipAddress);
-        operationLog.setIpSource(IpUtils.getIpSource(ipAddress));
+        // 请求IP，ip来源在写入时解析
+        operationLog.setIpAddress(IpUtils.getIpAddress(request));
         // 请求URL
         operationLog.setOptUrl(request.getRequestURI());
-        operationLogDao.insert(operationLog);
+        // 操作时间
+        operationLog.setCreateTime(LocalDateTime.now(ZoneId.of(SHANGHAI.getZone())));
+        // 放入写缓冲，由后台线程批量写入
+        operationLogBuffer.submit(operationLog);
     }
 
 }
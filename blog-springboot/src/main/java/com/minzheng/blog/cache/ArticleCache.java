@@ -0,0 +1,156 @@
+package com.minzheng.blog.cache;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.alibaba.fastjson.JSON;
+import com.minzheng.blog.dto.ArticleDTO;
+import com.minzheng.blog.event.ArticleChangeEvent;
+import com.minzheng.blog.service.RedisService;
+import com.minzheng.blog.util.BeanCopyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static com.minzheng.blog.constant.RedisPrefixConst.ARTICLE_CACHE;
+import static com.minzheng.blog.constant.RedisPrefixConst.ARTICLE_CACHE_VERSION;
+
+/**
+ * 文章详情二级缓存
+ * <p>
+ * 一级缓存为本地LRU缓存，二级缓存为redis，缓存内容不包含点赞量和浏览量。
+ * 上一篇、下一篇、推荐与最新文章会因任意文章变更而变化，所以文章变更时整体失效：
+ * 递增redis中的缓存版本号，旧版本的redis缓存等待自然过期。
+ * 本地缓存记录写入时的版本号，读取时与redis中的版本号比较，其他节点的变更也能立即生效。
+ * 调用方在查询数据库前读取一次版本号并用于读写，加载期间发生变更时旧数据只会写入旧版本。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Component
+public class ArticleCache {
+
+    /**
+     * 本地缓存容量
+     */
+    @Value("${article.cache.capacity:1000}")
+    private int capacity;
+
+    /**
+     * 本地缓存过期时间（秒）
+     */
+    @Value("${article.cache.local-timeout:60}")
+    private long localTimeout;
+
+    /**
+     * redis缓存过期时间（秒）
+     */
+    @Value("${article.cache.redis-timeout:3600}")
+    private long redisTimeout;
+
+    @Autowired
+    private RedisService redisService;
+
+    /**
+     * 本地缓存
+     */
+    private LRUCache<Integer, LocalEntry> localCache;
+
+    /**
+     * 初始化本地缓存
+     */
+    @PostConstruct
+    private void initCache() {
+        localCache = CacheUtil.newLRUCache(capacity, TimeUnit.SECONDS.toMillis(localTimeout));
+    }
+
+    /**
+     * 获取当前缓存版本号
+     *
+     * @return 版本号
+     */
+    public String getVersion() {
+        return Objects.toString(redisService.get(ARTICLE_CACHE_VERSION), "0");
+    }
+
+    /**
+     * 获取缓存的文章
+     *
+     * @param articleId 文章id
+     * @param version   缓存版本号
+     * @return {@link ArticleDTO} 文章副本，未命中返回null
+     */
+    public ArticleDTO getArticle(Integer articleId, String version) {
+        // 查询本地缓存，版本号不一致说明文章已变更
+        LocalEntry entry = localCache.get(articleId);
+        if (Objects.nonNull(entry) && entry.version.equals(version)) {
+            return BeanCopyUtils.copyObject(entry.article, ArticleDTO.class);
+        }
+        // 查询redis缓存
+        Object value = redisService.get(getRedisKey(articleId, version));
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        ArticleDTO article = JSON.parseObject(value.toString(), ArticleDTO.class);
+        localCache.put(articleId, new LocalEntry(version, article));
+        return BeanCopyUtils.copyObject(article, ArticleDTO.class);
+    }
+
+    /**
+     * 缓存文章
+     *
+     * @param article 文章
+     * @param version 查询数据库前读取的缓存版本号
+     */
+    public void putArticle(ArticleDTO article, String version) {
+        ArticleDTO cacheArticle = BeanCopyUtils.copyObject(article, ArticleDTO.class);
+        // 点赞量和浏览量实时查询，不做缓存
+        cacheArticle.setLikeCount(null);
+        cacheArticle.setViewsCount(null);
+        redisService.set(getRedisKey(article.getId(), version), JSON.toJSONString(cacheArticle), redisTimeout);
+        localCache.put(article.getId(), new LocalEntry(version, cacheArticle));
+    }
+
+    /**
+     * 文章变更后清除缓存，在事务提交后执行，避免并发请求将旧数据重新写入缓存
+     *
+     * @param event 文章变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChange(ArticleChangeEvent event) {
+        redisService.incr(ARTICLE_CACHE_VERSION, 1);
+        localCache.clear();
+    }
+
+    /**
+     * 获取redis缓存key
+     *
+     * @param articleId 文章id
+     * @param version   缓存版本号
+     * @return redis缓存key
+     */
+    private String getRedisKey(Integer articleId, String version) {
+        return ARTICLE_CACHE + version + ":" + articleId;
+    }
+
+    /**
+     * 本地缓存的文章及写入时的版本号
+     */
+    private static class LocalEntry {
+
+        private final String version;
+
+        private final ArticleDTO article;
+
+        LocalEntry(String version, ArticleDTO article) {
+            this.version = version;
+            this.article = article;
+        }
+
+    }
+
+}
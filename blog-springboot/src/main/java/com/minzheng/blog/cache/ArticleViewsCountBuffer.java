@@ -0,0 +1,131 @@
+package com.minzheng.blog.cache;
+
+import com.minzheng.blog.service.RedisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.minzheng.blog.constant.RedisPrefixConst.ARTICLE_VIEWS_COUNT;
+
+/**
+ * 文章浏览量写缓冲
+ * <p>
+ * 浏览量先累加在本地计数器中，定时或累计达到阈值后通过redis管道批量写入，应用关闭前会写入剩余的浏览量。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+@Component
+public class ArticleViewsCountBuffer {
+
+    /**
+     * 触发写入的累计浏览量阈值
+     */
+    @Value("${article.views.flush-threshold:1000}")
+    private int flushThreshold;
+
+    @Autowired
+    private RedisService redisService;
+
+    /**
+     * 文章浏览量计数器
+     */
+    private final Map<Integer, ViewsCounter> counterMap = new ConcurrentHashMap<>();
+
+    /**
+     * 上次写入后累计的浏览量
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    /**
+     * 文章浏览量+1
+     *
+     * @param articleId 文章id
+     */
+    public void increment(Integer articleId) {
+        counterMap.computeIfAbsent(articleId, key -> new ViewsCounter()).total.increment();
+        if (pendingCount.incrementAndGet() == flushThreshold) {
+            CompletableFuture.runAsync(this::flush);
+        }
+    }
+
+    /**
+     * 获取尚未写入redis的浏览量
+     *
+     * @param articleId 文章id
+     * @return 未写入的浏览量
+     */
+    public long getPendingCount(Integer articleId) {
+        ViewsCounter counter = counterMap.get(articleId);
+        if (Objects.isNull(counter)) {
+            return 0;
+        }
+        return counter.total.sum() - counter.flushed;
+    }
+
+    /**
+     * 将累计的浏览量批量写入redis
+     */
+    @Scheduled(fixedDelayString = "${article.views.flush-interval:1000}")
+    public synchronized void flush() {
+        pendingCount.set(0);
+        // 统计每篇文章上次写入后新增的浏览量
+        Map<Object, Double> scoreMap = new HashMap<>();
+        Map<ViewsCounter, Long> totalMap = new HashMap<>();
+        counterMap.forEach((articleId, counter) -> {
+            long total = counter.total.sum();
+            if (total > counter.flushed) {
+                scoreMap.put(articleId, (double) (total - counter.flushed));
+                totalMap.put(counter, total);
+            }
+        });
+        if (scoreMap.isEmpty()) {
+            return;
+        }
+        try {
+            redisService.zIncrAll(ARTICLE_VIEWS_COUNT, scoreMap);
+            totalMap.forEach((counter, total) -> counter.flushed = total);
+        } catch (Exception e) {
+            // 写入失败则保留计数，下次重试
+            log.error("文章浏览量写入redis失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 应用关闭前写入剩余的浏览量
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * 单篇文章浏览量计数器
+     */
+    private static class ViewsCounter {
+
+        /**
+         * 累计浏览量
+         */
+        private final LongAdder total = new LongAdder();
+
+        /**
+         * 已写入redis的浏览量，仅在flush中修改
+         */
+        private volatile long flushed;
+
+    }
+
+}
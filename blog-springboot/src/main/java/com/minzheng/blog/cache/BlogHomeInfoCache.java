@@ -0,0 +1,151 @@
+package com.minzheng.blog.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minzheng.blog.event.ArticleChangeEvent;
+import com.minzheng.blog.event.DashboardChangeEvent;
+import com.minzheng.blog.event.HomeInfoChangeEvent;
+import com.minzheng.blog.exception.BizException;
+import com.minzheng.blog.service.BlogInfoService;
+import com.minzheng.blog.vo.Result;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.minzheng.blog.enums.DashboardStatEnum.CATEGORY;
+import static com.minzheng.blog.enums.DashboardStatEnum.TAG;
+
+/**
+ * 首页信息缓存
+ * <p>
+ * 缓存序列化好的首页响应和按内容计算的ETag。文章、分类、标签、页面和网站配置变更后失效，
+ * 访问量以及其他节点上的变更按固定间隔刷新；刷新后内容不变时ETag也不变，客户端仍可得到304。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Component
+public class BlogHomeInfoCache {
+
+    /**
+     * 刷新间隔（秒）
+     */
+    @Value("${home.cache.refresh-interval:60}")
+    private long refreshInterval;
+
+    @Autowired
+    private BlogInfoService blogInfoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 失效次数
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile HomeInfoPayload payload;
+
+    /**
+     * 获取首页响应，失效或过期时重新生成
+     *
+     * @return {@link HomeInfoPayload} 首页响应
+     */
+    public HomeInfoPayload getPayload() {
+        HomeInfoPayload current = payload;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = payload;
+            if (!isFresh(current)) {
+                current = build();
+                payload = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 文章变更后失效
+     *
+     * @param event 文章变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChange(ArticleChangeEvent event) {
+        version.incrementAndGet();
+    }
+
+    /**
+     * 分类和标签变更后失效
+     *
+     * @param event 后台统计变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDashboardChange(DashboardChangeEvent event) {
+        if (event.getStat() == CATEGORY || event.getStat() == TAG) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * 页面和网站配置变更后失效
+     *
+     * @param event 首页信息变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHomeInfoChange(HomeInfoChangeEvent event) {
+        version.incrementAndGet();
+    }
+
+    private boolean isFresh(HomeInfoPayload current) {
+        return Objects.nonNull(current) && current.version == version.get()
+                && System.currentTimeMillis() - current.createTime < TimeUnit.SECONDS.toMillis(refreshInterval);
+    }
+
+    /**
+     * 生成首页响应，生成前记录失效次数，生成期间再次失效的话下次请求会重新生成
+     *
+     * @return {@link HomeInfoPayload} 首页响应
+     */
+    private HomeInfoPayload build() {
+        long currentVersion = version.get();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(Result.ok(blogInfoService.getBlogHomeInfo()));
+        } catch (JsonProcessingException e) {
+            throw new BizException("首页信息序列化失败");
+        }
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        return new HomeInfoPayload(body, eTag, currentVersion, System.currentTimeMillis());
+    }
+
+    /**
+     * 序列化好的首页响应
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class HomeInfoPayload {
+
+        /**
+         * json响应体
+         */
+        private final byte[] body;
+
+        private final String eTag;
+
+        private final long version;
+
+        private final long createTime;
+
+    }
+
+}
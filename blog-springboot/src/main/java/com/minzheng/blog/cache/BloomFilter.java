@@ -0,0 +1,129 @@
+package com.minzheng.blog.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆过滤器
+ * <p>
+ * 位数组保存在AtomicLongArray中，通过CAS置位，可并发写入。判断为不存在时一定不存在，判断为存在时有一定误判率。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/06
+ */
+public class BloomFilter {
+
+    /**
+     * 位数组
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * 位数
+     */
+    private final long bitSize;
+
+    /**
+     * 哈希函数个数
+     */
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 预计元素个数
+     * @param fpp                期望误判率
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        this.bits = new AtomicLongArray((int) ((optimalBitSize(expectedInsertions, fpp) + 63) >>> 6));
+        this.bitSize = (long) bits.length() << 6;
+        this.hashCount = optimalHashCount(bitSize, expectedInsertions);
+    }
+
+    /**
+     * 计算位数
+     *
+     * @param expectedInsertions 预计元素个数
+     * @param fpp                期望误判率
+     * @return 位数
+     */
+    public static long optimalBitSize(long expectedInsertions, double fpp) {
+        return Math.max(1, (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+    }
+
+    /**
+     * 计算哈希函数个数
+     *
+     * @param bitSize            位数
+     * @param expectedInsertions 预计元素个数
+     * @return 哈希函数个数
+     */
+    public static int optimalHashCount(long bitSize, long expectedInsertions) {
+        return Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 计算元素对应的位，供redis位图实现的布隆过滤器使用
+     *
+     * @param value     元素
+     * @param bitSize   位数
+     * @param hashCount 哈希函数个数
+     * @return 位下标
+     */
+    public static long[] indexes(String value, long bitSize, int hashCount) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1);
+        long[] indexes = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            indexes[i] = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+        }
+        return indexes;
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     * @return 是否有位发生变化，false表示元素可能已存在
+     */
+    public boolean put(String value) {
+        boolean changed = false;
+        for (long index : indexes(value, bitSize, hashCount)) {
+            changed |= setBit(index);
+        }
+        return changed;
+    }
+
+    private boolean setBit(long index) {
+        int arrayIndex = (int) (index >>> 6);
+        long mask = 1L << index;
+        while (true) {
+            long oldValue = bits.get(arrayIndex);
+            if ((oldValue & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(arrayIndex, oldValue, oldValue | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * FNV-1a 64位哈希
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * splitmix64混淆，作为第二个哈希值
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return (hash ^ (hash >>> 31)) | 1;
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.minzheng.blog.cache;
+
+import com.alibaba.fastjson.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.minzheng.blog.dao.ChatRecordDao;
+import com.minzheng.blog.entity.ChatRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+import static com.minzheng.blog.enums.ZoneEnum.SHANGHAI;
+
+/**
+ * 最近聊天记录缓存
+ * <p>
+ * 按创建时间顺序保存最近一段时间内的聊天记录，超过时间窗口或容量的记录从头部淘汰。
+ * 启动时从数据库加载，之后随发送、语音和撤回更新，新连接加载历史记录时不再查询数据库。
+ * 记录列表序列化后缓存，直到下一次变更。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+@Component
+public class ChatHistoryBuffer {
+
+    /**
+     * 保留最近多少小时的记录
+     */
+    @Value("${chat.history.hours:12}")
+    private long hours;
+
+    /**
+     * 最多保留的记录数
+     */
+    @Value("${chat.history.capacity:1000}")
+    private int capacity;
+
+    @Autowired
+    private ChatRecordDao chatRecordDao;
+
+    /**
+     * 按创建时间排序的记录
+     */
+    private final Deque<ChatRecord> recordDeque = new ArrayDeque<>();
+
+    /**
+     * 序列化后的记录列表，变更后置空
+     */
+    private String recordListJson;
+
+    /**
+     * 从数据库加载时间窗口内最新的记录
+     */
+    @PostConstruct
+    public synchronized void load() {
+        List<ChatRecord> chatRecordList = chatRecordDao.selectList(new LambdaQueryWrapper<ChatRecord>()
+                .ge(ChatRecord::getCreateTime, getDeadline())
+                .orderByDesc(ChatRecord::getId)
+                .last("limit " + capacity));
+        Collections.reverse(chatRecordList);
+        recordDeque.clear();
+        recordDeque.addAll(chatRecordList);
+        recordListJson = null;
+        log.info("加载最近聊天记录{}条", chatRecordList.size());
+    }
+
+    /**
+     * 追加记录
+     *
+     * @param chatRecord 聊天记录
+     */
+    public synchronized void append(ChatRecord chatRecord) {
+        recordDeque.addLast(chatRecord);
+        while (recordDeque.size() > capacity) {
+            recordDeque.pollFirst();
+        }
+        recordListJson = null;
+    }
+
+    /**
+     * 移除撤回的记录
+     *
+     * @param id 记录id
+     */
+    public synchronized void remove(Integer id) {
+        if (recordDeque.removeIf(chatRecord -> Objects.equals(chatRecord.getId(), id))) {
+            recordListJson = null;
+        }
+    }
+
+    /**
+     * 获取序列化后的记录列表
+     *
+     * @return json数组
+     */
+    public synchronized String getRecordListJson() {
+        evictExpired();
+        if (Objects.isNull(recordListJson)) {
+            recordListJson = JSON.toJSONString(recordDeque);
+        }
+        return recordListJson;
+    }
+
+    /**
+     * 淘汰超过时间窗口的记录
+     */
+    private void evictExpired() {
+        LocalDateTime deadline = getDeadline();
+        ChatRecord first;
+        while ((first = recordDeque.peekFirst()) != null
+                && Objects.nonNull(first.getCreateTime()) && first.getCreateTime().isBefore(deadline)) {
+            recordDeque.pollFirst();
+            recordListJson = null;
+        }
+    }
+
+    private LocalDateTime getDeadline() {
+        return LocalDateTime.now(ZoneId.of(SHANGHAI.getZone())).minusHours(hours);
+    }
+
+}
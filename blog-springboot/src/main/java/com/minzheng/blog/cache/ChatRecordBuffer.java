@@ -0,0 +1,424 @@
+package com.minzheng.blog.cache;
+
+import com.alibaba.fastjson.JSON;
+import com.minzheng.blog.dao.ChatRecordDao;
+import com.minzheng.blog.entity.ChatRecord;
+import com.minzheng.blog.service.RedisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.minzheng.blog.constant.RedisPrefixConst.CHAT_RECORD_ID;
+import static com.minzheng.blog.enums.ZoneEnum.SHANGHAI;
+
+/**
+ * 聊天记录写缓冲
+ * <p>
+ * 聊天记录分配id后立即返回，由后台线程批量多行插入数据库。每条记录的id由redis INCR生成，
+ * 多个节点之间不会重复，且与创建时间同序，最近聊天记录的加载和日志归档都依赖这一点。
+ * 撤回和插入按提交顺序放入同一个队列：撤回的记录还在队列中时直接从本批次中去掉，
+ * 已写入的记录再从数据库删除，因此不会出现先删除后插入的情况。
+ * 多实例部署时撤回可能到达其他节点，而插入还在原节点的队列中，删除时记录不存在的id在超时前定时重试删除。
+ * 批量插入失败时按间隔倍增重试，仍然失败则逐条插入，逐条插入也失败的记录保留在失败列表中并输出日志，便于人工补录。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+@Component
+public class ChatRecordBuffer {
+
+    /**
+     * 撤回重试间隔（毫秒）
+     */
+    private static final long RECALL_RETRY_INTERVAL = 1000;
+
+    /**
+     * 队列容量，队列已满时由调用线程直接插入
+     */
+    @Value("${chat.record.queue-capacity:10000}")
+    private int queueCapacity;
+
+    /**
+     * 单次插入的最大条数
+     */
+    @Value("${chat.record.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 队列为空时的等待时间（毫秒）
+     */
+    @Value("${chat.record.flush-interval:200}")
+    private long flushInterval;
+
+    /**
+     * 批量插入失败后的重试次数
+     */
+    @Value("${chat.record.retry-times:3}")
+    private int retryTimes;
+
+    /**
+     * 首次重试的等待时间（毫秒），之后每次翻倍
+     */
+    @Value("${chat.record.retry-interval:200}")
+    private long retryInterval;
+
+    /**
+     * 失败列表最多保留的记录数
+     */
+    @Value("${chat.record.failed-capacity:1000}")
+    private int failedCapacity;
+
+    /**
+     * 撤回时记录不存在的重试时长（毫秒）
+     */
+    @Value("${chat.record.recall-retry-timeout:60000}")
+    private long recallRetryTimeout;
+
+    @Autowired
+    private ChatRecordDao chatRecordDao;
+
+    @Autowired
+    private RedisService redisService;
+
+    /**
+     * 待执行的插入和撤回
+     */
+    private BlockingQueue<Operation> queue;
+
+    /**
+     * 后台写入线程
+     */
+    private Thread writerThread;
+
+    private volatile boolean running = true;
+
+    /**
+     * redis计数是否已校准到数据库中的最大id
+     */
+    private volatile boolean counterSeeded;
+
+    /**
+     * 本节点分配过的最大id
+     */
+    private volatile long lastId;
+
+    /**
+     * 写入成功的记录数
+     */
+    private final LongAdder writtenCount = new LongAdder();
+
+    /**
+     * 写入失败的记录数
+     */
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * 最终写入失败的记录，超过容量时丢弃最早的
+     */
+    private final Deque<ChatRecord> failedRecordDeque = new ArrayDeque<>();
+
+    /**
+     * 删除时记录还不存在的撤回，id -> 重试截止时间
+     */
+    private final Map<Integer, Long> recallRetryMap = new ConcurrentHashMap<>();
+
+    /**
+     * 上次重试撤回的时间
+     */
+    private volatile long lastRecallRetryTime;
+
+    @PostConstruct
+    private void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        writerThread = new Thread(this::writeLoop, "chat-record-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 分配id和创建时间后提交写入，不等待数据库
+     *
+     * @param chatRecord 聊天记录
+     */
+    public void save(ChatRecord chatRecord) {
+        chatRecord.setId(generateId());
+        chatRecord.setCreateTime(LocalDateTime.now(ZoneId.of(SHANGHAI.getZone())));
+        if (!queue.offer(new Operation(chatRecord, chatRecord.getId()))) {
+            // 队列已满，id已分配，直接插入不会与队列中的记录冲突
+            log.warn("聊天记录队列已满，同步写入: {}", chatRecord.getId());
+            write(Collections.singletonList(chatRecord), Collections.emptyList());
+        }
+    }
+
+    /**
+     * 撤回记录，与之前提交的插入保持顺序
+     *
+     * @param id 记录id
+     */
+    public void recall(Integer id) {
+        try {
+            // 撤回很少，队列已满时等待而不是绕过队列，避免删除早于插入
+            queue.put(new Operation(null, id));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("聊天记录撤回被中断: {}", id);
+        }
+    }
+
+    /**
+     * 通过redis INCR分配id，不访问数据库
+     *
+     * @return id
+     */
+    private int generateId() {
+        if (!counterSeeded) {
+            seedCounter();
+        }
+        long id = redisService.incr(CHAT_RECORD_ID, 1);
+        if (id <= lastId) {
+            // redis数据丢失，重新校准后再分配
+            seedCounter();
+            id = redisService.incr(CHAT_RECORD_ID, 1);
+        }
+        lastId = Math.max(lastId, id);
+        return (int) id;
+    }
+
+    /**
+     * redis中的计数小于数据库中的最大id或本节点分配过的id时（首次启动或redis数据丢失），推进到该值
+     */
+    private synchronized void seedCounter() {
+        long floor = Math.max(lastId, Optional.ofNullable(chatRecordDao.getMaxId()).orElse(0));
+        long current = redisService.incr(CHAT_RECORD_ID, 0);
+        if (current < floor) {
+            redisService.incr(CHAT_RECORD_ID, floor - current);
+        }
+        counterSeeded = true;
+    }
+
+    /**
+     * 持续从队列中取出操作批量执行，直到应用关闭
+     */
+    private void writeLoop() {
+        List<Operation> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Operation first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                retryRecalls();
+                if (Objects.isNull(first)) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                execute(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 按顺序合并一批操作：撤回本批次中的记录时直接去掉，否则删除已写入的记录
+     *
+     * @param batch 操作列表
+     */
+    private void execute(List<Operation> batch) {
+        Map<Integer, ChatRecord> insertMap = new LinkedHashMap<>();
+        List<Integer> deleteIdList = new ArrayList<>();
+        for (Operation operation : batch) {
+            if (Objects.nonNull(operation.chatRecord)) {
+                insertMap.put(operation.id, operation.chatRecord);
+            } else if (Objects.isNull(insertMap.remove(operation.id))) {
+                deleteIdList.add(operation.id);
+            }
+        }
+        write(new ArrayList<>(insertMap.values()), deleteIdList);
+    }
+
+    /**
+     * 批量插入和删除
+     *
+     * @param chatRecordList 待插入的记录
+     * @param deleteIdList   待删除的记录id
+     */
+    private void write(List<ChatRecord> chatRecordList, List<Integer> deleteIdList) {
+        if (!chatRecordList.isEmpty()) {
+            if (retry(() -> chatRecordDao.insertBatch(chatRecordList))) {
+                writtenCount.add(chatRecordList.size());
+            } else {
+                insertOneByOne(chatRecordList);
+            }
+        }
+        if (deleteIdList.isEmpty()) {
+            return;
+        }
+        // 撤回很少，逐条删除，记录还不存在（可能在其他节点的队列中）时稍后重试
+        long deadline = System.currentTimeMillis() + recallRetryTimeout;
+        for (Integer id : deleteIdList) {
+            AtomicInteger deletedCount = new AtomicInteger();
+            if (!retry(() -> deletedCount.set(chatRecordDao.deleteById(id)))) {
+                log.error("聊天记录撤回失败: {}", id);
+            } else if (deletedCount.get() == 0) {
+                recallRetryMap.putIfAbsent(id, deadline);
+            }
+        }
+    }
+
+    /**
+     * 重试删除撤回时还不存在的记录，删除成功或超时后不再重试
+     */
+    private void retryRecalls() {
+        long now = System.currentTimeMillis();
+        if (recallRetryMap.isEmpty() || now - lastRecallRetryTime < RECALL_RETRY_INTERVAL) {
+            return;
+        }
+        lastRecallRetryTime = now;
+        recallRetryMap.forEach((id, deadline) -> {
+            try {
+                if (chatRecordDao.deleteById(id) > 0 || now > deadline) {
+                    recallRetryMap.remove(id);
+                }
+            } catch (Exception e) {
+                log.warn("聊天记录撤回重试失败: {}, {}", id, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 逐条插入，已存在的记录视为写入成功，其余失败的记录放入失败列表
+     *
+     * @param chatRecordList 聊天记录列表
+     */
+    private void insertOneByOne(List<ChatRecord> chatRecordList) {
+        for (ChatRecord chatRecord : chatRecordList) {
+            try {
+                chatRecordDao.insertBatch(Collections.singletonList(chatRecord));
+                writtenCount.increment();
+            } catch (DuplicateKeyException e) {
+                writtenCount.increment();
+            } catch (Exception e) {
+                failedCount.increment();
+                log.error("聊天记录写入失败: {}, {}", JSON.toJSONString(chatRecord), e.getMessage());
+                synchronized (failedRecordDeque) {
+                    failedRecordDeque.addLast(chatRecord);
+                    while (failedRecordDeque.size() > failedCapacity) {
+                        failedRecordDeque.pollFirst();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 执行数据库操作，失败后按间隔倍增重试
+     *
+     * @param action 数据库操作
+     * @return 是否成功
+     */
+    private boolean retry(Runnable action) {
+        long interval = retryInterval;
+        for (int i = 0; ; i++) {
+            try {
+                action.run();
+                return true;
+            } catch (Exception e) {
+                if (i >= retryTimes) {
+                    log.warn("聊天记录数据库操作重试{}次后失败: {}", retryTimes, e.getMessage());
+                    return false;
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(interval);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                interval *= 2;
+            }
+        }
+    }
+
+    /**
+     * 应用关闭前执行队列中剩余的操作
+     */
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        // 等待写入线程完成当前批次后退出
+        running = false;
+        writerThread.join(flushInterval + TimeUnit.SECONDS.toMillis(5));
+        List<Operation> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            execute(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 获取队列中等待执行的操作数
+     *
+     * @return 队列长度
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 获取写入成功的记录数
+     *
+     * @return 写入数
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * 获取写入失败的记录数
+     *
+     * @return 失败数
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * 获取最近写入失败的记录
+     *
+     * @return 失败记录副本
+     */
+    public List<ChatRecord> listFailedRecords() {
+        synchronized (failedRecordDeque) {
+            return new ArrayList<>(failedRecordDeque);
+        }
+    }
+
+    /**
+     * 插入或撤回，撤回时没有记录
+     */
+    private static class Operation {
+
+        private final ChatRecord chatRecord;
+
+        private final Integer id;
+
+        Operation(ChatRecord chatRecord, Integer id) {
+            this.chatRecord = chatRecord;
+            this.id = id;
+        }
+
+    }
+
+}
@@ -0,0 +1,320 @@
+package com.minzheng.blog.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
+import com.minzheng.blog.dao.*;
+import com.minzheng.blog.dto.*;
+import com.minzheng.blog.entity.Article;
+import com.minzheng.blog.event.ArticleChangeEvent;
+import com.minzheng.blog.event.DashboardChangeEvent;
+import com.minzheng.blog.service.RedisService;
+import com.minzheng.blog.service.UniqueViewService;
+import com.minzheng.blog.util.BeanCopyUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.minzheng.blog.constant.CommonConst.FALSE;
+import static com.minzheng.blog.constant.RedisPrefixConst.ARTICLE_VIEWS_COUNT;
+
+/**
+ * 后台统计缓存
+ * <p>
+ * 后台首页的统计数据按来源分项缓存在内存中：留言量和用户量收到变更事件后直接增减；
+ * 文章、分类、标签相关的统计在变更后标记失效，下次查询时重新加载一次；
+ * 用户量统计和文章排行来自定时汇总和redis，按固定间隔刷新。
+ * 定时对账任务重新加载全部统计，修正增量维护中可能出现的偏差。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+@Component
+public class DashboardStatsCache {
+
+    /**
+     * 用户量统计和文章排行的刷新间隔（秒）
+     */
+    @Value("${dashboard.refresh-interval:60}")
+    private long refreshInterval;
+
+    @Autowired
+    private ArticleDao articleDao;
+
+    @Autowired
+    private CategoryDao categoryDao;
+
+    @Autowired
+    private TagDao tagDao;
+
+    @Autowired
+    private MessageDao messageDao;
+
+    @Autowired
+    private UserInfoDao userInfoDao;
+
+    @Autowired
+    private UniqueViewService uniqueViewService;
+
+    @Autowired
+    private RedisService redisService;
+
+    private CountSection messageCount;
+
+    private CountSection userCount;
+
+    private Section<Integer> articleCount;
+
+    private Section<List<ArticleStatisticsDTO>> articleStatistics;
+
+    private Section<List<CategoryDTO>> categories;
+
+    private Section<List<TagDTO>> tags;
+
+    private Section<List<UniqueViewDTO>> uniqueViews;
+
+    private Section<List<ArticleRankDTO>> articleRank;
+
+    @PostConstruct
+    private void initSections() {
+        long refreshMillis = TimeUnit.SECONDS.toMillis(refreshInterval);
+        messageCount = new CountSection(() -> messageDao.selectCount(null));
+        userCount = new CountSection(() -> userInfoDao.selectCount(null));
+        articleCount = new Section<>(() -> articleDao.selectCount(new LambdaQueryWrapper<Article>()
+                .eq(Article::getIsDelete, FALSE)), 0);
+        articleStatistics = new Section<>(() -> Collections.unmodifiableList(articleDao.listArticleStatistics()), 0);
+        categories = new Section<>(() -> Collections.unmodifiableList(categoryDao.listCategoryDTO()), 0);
+        tags = new Section<>(() -> Collections.unmodifiableList(
+                BeanCopyUtils.copyList(tagDao.selectList(null), TagDTO.class)), 0);
+        uniqueViews = new Section<>(() -> Collections.unmodifiableList(uniqueViewService.listUniqueViews()), refreshMillis);
+        articleRank = new Section<>(this::listArticleRank, refreshMillis);
+    }
+
+    /**
+     * 获取后台统计，不包含实时查询的访问量
+     *
+     * @return {@link BlogBackInfoDTO} 后台统计
+     */
+    public BlogBackInfoDTO getBlogBackInfo() {
+        return BlogBackInfoDTO.builder()
+                .messageCount(messageCount.get())
+                .userCount(userCount.get())
+                .articleCount(articleCount.get())
+                .articleStatisticsList(articleStatistics.get())
+                .categoryDTOList(categories.get())
+                .tagDTOList(tags.get())
+                .uniqueViewDTOList(uniqueViews.get())
+                .articleRankDTOList(articleRank.get())
+                .build();
+    }
+
+    /**
+     * 文章变更后，文章量、文章统计以及保存文章时可能新建的分类和标签失效
+     *
+     * @param event 文章变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChange(ArticleChangeEvent event) {
+        articleCount.invalidate();
+        articleStatistics.invalidate();
+        categories.invalidate();
+        tags.invalidate();
+    }
+
+    /**
+     * 留言量和用户量增量更新，分类和标签失效
+     *
+     * @param event 后台统计变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDashboardChange(DashboardChangeEvent event) {
+        switch (event.getStat()) {
+            case MESSAGE:
+                messageCount.add(event.getDelta());
+                break;
+            case USER:
+                userCount.add(event.getDelta());
+                break;
+            case CATEGORY:
+                categories.invalidate();
+                break;
+            case TAG:
+                tags.invalidate();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 定时对账，重新加载全部统计
+     */
+    @Scheduled(fixedDelayString = "${dashboard.reconcile-interval:600000}", initialDelayString = "${dashboard.reconcile-interval:600000}")
+    public void reconcile() {
+        try {
+            reconcileCount("留言量", messageCount);
+            reconcileCount("用户量", userCount);
+            articleCount.reload();
+            articleStatistics.reload();
+            categories.reload();
+            tags.reload();
+            uniqueViews.reload();
+            articleRank.reload();
+        } catch (Exception e) {
+            log.error("后台统计对账失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 重新加载计数，与增量维护的结果不一致时记录日志
+     *
+     * @param name    统计项
+     * @param section 计数
+     */
+    private void reconcileCount(String name, CountSection section) {
+        Integer cached = section.peek();
+        Integer actual = section.reload();
+        if (Objects.nonNull(cached) && !cached.equals(actual)) {
+            log.info("后台统计{}对账修正: {} -> {}", name, cached, actual);
+        }
+    }
+
+    /**
+     * 查询redis访问量前五的文章
+     *
+     * @return {@link List<ArticleRankDTO>} 文章排行，没有访问记录时为null
+     */
+    private List<ArticleRankDTO> listArticleRank() {
+        Map<Object, Double> articleMap = redisService.zReverseRangeWithScore(ARTICLE_VIEWS_COUNT, 0, 4);
+        if (CollectionUtils.isEmpty(articleMap)) {
+            return null;
+        }
+        // 提取文章id
+        List<Integer> articleIdList = new ArrayList<>(articleMap.size());
+        articleMap.forEach((key, value) -> articleIdList.add((Integer) key));
+        // 查询文章信息
+        return Collections.unmodifiableList(articleDao.selectList(new LambdaQueryWrapper<Article>()
+                        .select(Article::getId, Article::getArticleTitle)
+                        .in(Article::getId, articleIdList))
+                .stream().map(article -> ArticleRankDTO.builder()
+                        .articleTitle(article.getArticleTitle())
+                        .viewsCount(articleMap.get(article.getId()).intValue())
+                        .build())
+                .sorted(Comparator.comparingInt(ArticleRankDTO::getViewsCount).reversed())
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * 单项统计，失效或过期后在下次查询时加载
+     *
+     * @param <T> 统计类型
+     */
+    private static class Section<T> {
+
+        private final Supplier<T> loader;
+
+        /**
+         * 过期时间（毫秒），不大于0表示只在失效时重新加载
+         */
+        private final long ttlMillis;
+
+        /**
+         * 失效次数
+         */
+        private final AtomicLong version = new AtomicLong();
+
+        /**
+         * 当前值对应的失效次数，-1表示未加载
+         */
+        private volatile long loadedVersion = -1;
+
+        private volatile long loadedTime;
+
+        protected volatile T value;
+
+        Section(Supplier<T> loader, long ttlMillis) {
+            this.loader = loader;
+            this.ttlMillis = ttlMillis;
+        }
+
+        T get() {
+            if (isFresh()) {
+                return value;
+            }
+            synchronized (this) {
+                if (!isFresh()) {
+                    load();
+                }
+                return value;
+            }
+        }
+
+        T peek() {
+            return value;
+        }
+
+        synchronized T reload() {
+            load();
+            return value;
+        }
+
+        void invalidate() {
+            version.incrementAndGet();
+        }
+
+        /**
+         * 加载后是否未再失效
+         */
+        boolean isLoaded() {
+            return loadedVersion == version.get();
+        }
+
+        private boolean isFresh() {
+            return isLoaded() && (ttlMillis <= 0 || System.currentTimeMillis() - loadedTime < ttlMillis);
+        }
+
+        /**
+         * 加载前记录失效次数，加载期间再次失效的话下次查询会重新加载
+         */
+        private void load() {
+            long currentVersion = version.get();
+            value = loader.get();
+            loadedTime = System.currentTimeMillis();
+            loadedVersion = currentVersion;
+        }
+
+    }
+
+    /**
+     * 增量维护的计数
+     */
+    private static class CountSection extends Section<Integer> {
+
+        CountSection(Supplier<Integer> loader) {
+            super(loader, 0);
+        }
+
+        /**
+         * 已加载时直接增减，未加载时等查询时从数据库加载
+         *
+         * @param delta 变化量
+         */
+        synchronized void add(int delta) {
+            if (isLoaded() && Objects.nonNull(value)) {
+                value = Math.max(value + delta, 0);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.minzheng.blog.cache;
+
+import com.minzheng.blog.dao.OperationLogDao;
+import com.minzheng.blog.entity.OperationLog;
+import com.minzheng.blog.strategy.context.IpSourceStrategyContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 操作日志写缓冲
+ * <p>
+ * 操作日志先放入有界队列，由后台线程批量解析ip来源并多行插入数据库；队列已满时丢弃新日志并计数，
+ * 应用关闭前会写入队列中剩余的日志。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+@Component
+public class OperationLogBuffer {
+
+    /**
+     * 队列容量
+     */
+    @Value("${operation-log.queue-capacity:10000}")
+    private int queueCapacity;
+
+    /**
+     * 单次插入的最大条数
+     */
+    @Value("${operation-log.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 队列为空时的等待时间（毫秒）
+     */
+    @Value("${operation-log.flush-interval:1000}")
+    private long flushInterval;
+
+    @Autowired
+    private OperationLogDao operationLogDao;
+
+    @Autowired
+    private IpSourceStrategyContext ipSourceStrategyContext;
+
+    /**
+     * 待写入的操作日志
+     */
+    private BlockingQueue<OperationLog> queue;
+
+    /**
+     * 后台写入线程
+     */
+    private Thread writerThread;
+
+    private volatile boolean running = true;
+
+    /**
+     * 丢弃的日志数
+     */
+    private final LongAdder droppedCount = new LongAdder();
+
+    /**
+     * 写入成功的日志数
+     */
+    private final LongAdder writtenCount = new LongAdder();
+
+    /**
+     * 写入失败的日志数
+     */
+    private final LongAdder failedCount = new LongAdder();
+
+    @PostConstruct
+    private void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        writerThread = new Thread(this::writeLoop, "operation-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 提交操作日志，不阻塞调用线程
+     *
+     * @param operationLog 操作日志
+     */
+    public void submit(OperationLog operationLog) {
+        if (!queue.offer(operationLog)) {
+            droppedCount.increment();
+            log.warn("操作日志队列已满，丢弃日志: {}", operationLog.getOptUrl());
+        }
+    }
+
+    /**
+     * 持续从队列中取出日志批量写入，直到应用关闭
+     */
+    private void writeLoop() {
+        List<OperationLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                OperationLog first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (Objects.isNull(first)) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 解析ip来源后批量插入
+     *
+     * @param batch 操作日志列表
+     */
+    private void write(List<OperationLog> batch) {
+        try {
+            batch.forEach(item -> item.setIpSource(ipSourceStrategyContext.executeIpSourceStrategy(item.getIpAddress())));
+            operationLogDao.insertBatch(batch);
+            writtenCount.add(batch.size());
+        } catch (Exception e) {
+            failedCount.add(batch.size());
+            log.error("操作日志写入失败，丢弃{}条: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 应用关闭前写入队列中剩余的日志
+     */
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        // 等待写入线程完成当前批次后退出
+        running = false;
+        writerThread.join(flushInterval + TimeUnit.SECONDS.toMillis(5));
+        List<OperationLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 获取队列中等待写入的日志数
+     *
+     * @return 队列长度
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 获取因队列已满丢弃的日志数
+     *
+     * @return 丢弃数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 获取写入成功的日志数
+     *
+     * @return 写入数
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * 获取写入失败的日志数
+     *
+     * @return 失败数
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+}
@@ -9,6 +9,8 @@ import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import static com.minzheng.blog.constant.CommonConst.NEXT_CURSOR;
+
 /**
  * web mvc配置
  *
@@ -23,6 +25,11 @@ public class WebMvcConfig implements WebMvcConfigurer {
         return new WebSecurityHandler();
     }
 
+    @Bean
+    public PageableHandlerInterceptor getPageableHandlerInterceptor() {
+        return new PageableHandlerInterceptor();
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         // 设置允许跨域的路径
@@ -34,12 +41,14 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 // 设置允许跨域请求的域名
                 .allowedOriginPatterns("*")
                 // 设置允许的请求方式
-                .allowedMethods("*");
+                .allowedMethods("*")
+                // 设置允许前端读取的响应头
+                .exposedHeaders(NEXT_CURSOR);
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new PageableHandlerInterceptor());
+        registry.addInterceptor(getPageableHandlerInterceptor());
         registry.addInterceptor(getWebSecurityHandler());
     }
 
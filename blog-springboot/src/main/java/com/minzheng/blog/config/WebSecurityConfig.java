@@ -4,7 +4,6 @@ import com.minzheng.blog.handler.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.access.AccessDecisionManager;
 import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 
@@ -14,7 +13,6 @@ import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.core.session.SessionRegistryImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.web.access.intercept.FilterInvocationSecurityMetadataSource;
 import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
 
@@ -44,17 +42,11 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private LogoutSuccessHandlerImpl logoutSuccessHandler;  // 登出成功处理
 
-    // 自定义接口拦截规则
-    @Bean
-    public FilterInvocationSecurityMetadataSource securityMetadataSource() {
-        return new FilterInvocationSecurityMetadataSourceImpl();
-    }
+    @Autowired
+    private FilterInvocationSecurityMetadataSourceImpl securityMetadataSource;  // 自定义接口拦截规则
 
-    // 自定义访问决策管理器
-    @Bean
-    public AccessDecisionManager accessDecisionManager() {
-        return new AccessDecisionManagerImpl();
-    }
+    @Autowired
+    private AccessDecisionManagerImpl accessDecisionManager;    // 自定义访问决策管理器
 
     /**
      * session注册方法
@@ -102,8 +94,8 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                 .withObjectPostProcessor(new ObjectPostProcessor<FilterSecurityInterceptor>() {
                     @Override
                     public <O extends FilterSecurityInterceptor> O postProcess(O fsi) {
-                        fsi.setSecurityMetadataSource(securityMetadataSource());    // 设置安全元数据源
-                        fsi.setAccessDecisionManager(accessDecisionManager());      // 设置访问决策管理器
+                        fsi.setSecurityMetadataSource(securityMetadataSource);    // 设置安全元数据源
+                        fsi.setAccessDecisionManager(accessDecisionManager);      // 设置访问决策管理器
                         return fsi;
                     }
                 })
@@ -39,6 +39,16 @@ public class CommonConst {
      */
     public static final String SIZE = "size";
 
+    /**
+     * 分页游标
+     */
+    public static final String AFTER = "after";
+
+    /**
+     * 下一页游标响应头
+     */
+    public static final String NEXT_CURSOR = "Next-Cursor";
+
     /**
      * 博主id
      */
@@ -84,8 +84,73 @@ public class RedisPrefixConst {
     public static final String ABOUT = "about";
 
     /**
-     * 访客
+     * 每天的访客集合
      */
-    public static final String UNIQUE_VISITOR = "unique_visitor";
+    public static final String UNIQUE_VISITOR_SET_DAY = "unique_visitor_set:day:";
+
+    /**
+     * 每小时的访客集合
+     */
+    public static final String UNIQUE_VISITOR_SET_HOUR = "unique_visitor_set:hour:";
+
+    /**
+     * 每天的访客HyperLogLog
+     */
+    public static final String UNIQUE_VISITOR_DAY = "unique_visitor:day:";
+
+    /**
+     * 每小时的访客HyperLogLog
+     */
+    public static final String UNIQUE_VISITOR_HOUR = "unique_visitor:hour:";
+
+    /**
+     * 每天访客的布隆过滤器位图
+     */
+    public static final String UNIQUE_VISITOR_BLOOM_DAY = "unique_visitor:bloom:";
+
+    /**
+     * 每小时的页面访问量
+     */
+    public static final String PAGE_VIEW_HOUR = "page_view:hour:";
+
+    /**
+     * 文章详情缓存
+     */
+    public static final String ARTICLE_CACHE = "article_cache:";
+
+    /**
+     * 文章详情缓存版本
+     */
+    public static final String ARTICLE_CACHE_VERSION = "article_cache_version";
+
+    /**
+     * 接口限流滑动窗口
+     */
+    public static final String ACCESS_LIMIT = "access_limit:";
+
+    /**
+     * 聊天记录id
+     */
+    public static final String CHAT_RECORD_ID = "chat_record_id";
+
+    /**
+     * websocket消息频道
+     */
+    public static final String WEBSOCKET_MESSAGE_CHANNEL = "websocket:message";
+
+    /**
+     * websocket在线人数变更频道
+     */
+    public static final String WEBSOCKET_ONLINE_CHANNEL = "websocket:online";
+
+    /**
+     * websocket节点集合
+     */
+    public static final String WEBSOCKET_NODES = "websocket_nodes";
+
+    /**
+     * 每个websocket节点的在线人数
+     */
+    public static final String WEBSOCKET_ONLINE_COUNT = "websocket_online_count:";
 
 }
@@ -3,6 +3,7 @@ package com.minzheng.blog.controller;
 
 import com.minzheng.blog.annotation.AccessLimit;
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.*;
 import com.minzheng.blog.enums.FilePathEnum;
 import com.minzheng.blog.service.ArticleService;
@@ -43,6 +44,7 @@ public class ArticleController {
      * @return {@link Result<ArchiveDTO>} 文章归档列表
      */
     @ApiOperation(value = "查看文章归档")
+    @Paging
     @GetMapping("/articles/archives")
     public Result<PageResult<ArchiveDTO>> listArchives() {
         return Result.ok(articleService.listArchives());
@@ -54,6 +56,7 @@ public class ArticleController {
      * @return {@link Result<ArticleHomeDTO>} 首页文章列表
      */
     @ApiOperation(value = "查看首页文章")
+    @Paging
     @GetMapping("/articles")
     public Result<List<ArticleHomeDTO>> listArticles() {
         return Result.ok(articleService.listArticles());
@@ -66,6 +69,7 @@ public class ArticleController {
      * @return {@link Result<ArticleBackDTO>} 后台文章列表
      */
     @ApiOperation(value = "查看后台文章")
+    @Paging
     @GetMapping("/admin/articles")
     public Result<PageResult<ArticleBackDTO>> listArticleBacks(ConditionVO conditionVO) {
         return Result.ok(articleService.listArticleBacks(conditionVO));
@@ -173,6 +177,7 @@ public class ArticleController {
      * @return {@link Result<ArticlePreviewListDTO>} 文章列表
      */
     @ApiOperation(value = "根据条件查询文章")
+    @Paging
     @GetMapping("/articles/condition")
     public Result<ArticlePreviewListDTO> listArticlesByCondition(ConditionVO condition) {
         return Result.ok(articleService.listArticlesByCondition(condition));
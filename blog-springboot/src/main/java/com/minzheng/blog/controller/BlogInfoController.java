@@ -2,13 +2,17 @@ package com.minzheng.blog.controller;
 
 
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.cache.BlogHomeInfoCache;
 import com.minzheng.blog.dto.BlogBackInfoDTO;
 import com.minzheng.blog.dto.BlogHomeInfoDTO;
+import com.minzheng.blog.dto.VisitStatDTO;
 import com.minzheng.blog.enums.FilePathEnum;
 import com.minzheng.blog.service.BlogInfoService;
+import com.minzheng.blog.service.UniqueViewService;
 import com.minzheng.blog.service.impl.WebSocketServiceImpl;
 import com.minzheng.blog.strategy.context.UploadStrategyContext;
 import com.minzheng.blog.vo.BlogInfoVO;
+import com.minzheng.blog.vo.ConditionVO;
 import com.minzheng.blog.vo.Result;
 import com.minzheng.blog.vo.VoiceVO;
 import com.minzheng.blog.vo.WebsiteConfigVO;
@@ -16,11 +20,15 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 
 import javax.validation.Valid;
+import java.util.List;
 
 import static com.minzheng.blog.constant.OptTypeConst.UPDATE;
 
@@ -39,6 +47,10 @@ public class BlogInfoController {
     private WebSocketServiceImpl webSocketService;
     @Autowired
     private UploadStrategyContext uploadStrategyContext;
+    @Autowired
+    private UniqueViewService uniqueViewService;
+    @Autowired
+    private BlogHomeInfoCache blogHomeInfoCache;
 
     /**
      * 查看博客信息
@@ -47,8 +59,14 @@ public class BlogInfoController {
      */
     @ApiOperation(value = "查看博客信息")
     @GetMapping("/")
-    public Result<BlogHomeInfoDTO> getBlogHomeInfo() {
-        return Result.ok(blogInfoService.getBlogHomeInfo());
+    public ResponseEntity<byte[]> getBlogHomeInfo() {
+        BlogHomeInfoCache.HomeInfoPayload payload = blogHomeInfoCache.getPayload();
+        // ETag与If-None-Match一致时，spring直接返回304且不写响应体
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(payload.getETag())
+                .body(payload.getBody());
     }
 
     /**
@@ -62,6 +80,18 @@ public class BlogInfoController {
         return Result.ok(blogInfoService.getBlogBackInfo());
     }
 
+    /**
+     * 查看访问统计
+     *
+     * @param conditionVO 条件，type为1按小时、2按天
+     * @return {@link Result<VisitStatDTO>} 访问统计
+     */
+    @ApiOperation(value = "查看访问统计")
+    @GetMapping("/admin/visits")
+    public Result<List<VisitStatDTO>> listVisitStats(ConditionVO conditionVO) {
+        return Result.ok(uniqueViewService.listVisitStats(conditionVO));
+    }
+
     /**
      * 上传博客配置图片
      *
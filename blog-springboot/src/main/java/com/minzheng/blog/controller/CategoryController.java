@@ -2,6 +2,7 @@ package com.minzheng.blog.controller;
 
 
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.CategoryBackDTO;
 import com.minzheng.blog.dto.CategoryDTO;
 import com.minzheng.blog.dto.CategoryOptionDTO;
@@ -52,6 +53,7 @@ public class CategoryController {
      * @return {@link Result<CategoryBackDTO>} 后台分类列表
      */
     @ApiOperation(value = "查看后台分类列表")
+    @Paging
     @GetMapping("/admin/categories")
     public Result<PageResult<CategoryBackDTO>> listBackCategories(ConditionVO condition) {
         return Result.ok(categoryService.listBackCategories(condition));
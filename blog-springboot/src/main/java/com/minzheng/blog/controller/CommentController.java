@@ -1,6 +1,7 @@
 package com.minzheng.blog.controller;
 
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.CommentBackDTO;
 import com.minzheng.blog.dto.CommentDTO;
 import com.minzheng.blog.vo.PageResult;
@@ -38,6 +39,7 @@ public class CommentController {
      * @return {@link Result<CommentDTO>}
      */
     @ApiOperation(value = "查询评论")
+    @Paging
     @GetMapping("/comments")
     public Result<PageResult<CommentDTO>> listComments(CommentVO commentVO) {
         return Result.ok(commentService.listComments(commentVO));
@@ -64,6 +66,7 @@ public class CommentController {
      */
     @ApiOperation(value = "查询评论下的回复")
     @ApiImplicitParam(name = "commentId", value = "评论id", required = true, dataType = "Integer")
+    @Paging
     @GetMapping("/comments/{commentId}/replies")
     public Result<List<ReplyDTO>> listRepliesByCommentId(@PathVariable("commentId") Integer commentId) {
         return Result.ok(commentService.listRepliesByCommentId(commentId));
@@ -117,6 +120,7 @@ public class CommentController {
      * @return {@link Result<CommentBackDTO>} 后台评论
      */
     @ApiOperation(value = "查询后台评论")
+    @Paging
     @GetMapping("/admin/comments")
     public Result<PageResult<CommentBackDTO>> listCommentBackDTO(ConditionVO condition) {
         return Result.ok(commentService.listCommentBackDTO(condition));
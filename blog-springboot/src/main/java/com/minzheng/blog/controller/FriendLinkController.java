@@ -2,6 +2,7 @@ package com.minzheng.blog.controller;
 
 
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.FriendLinkBackDTO;
 import com.minzheng.blog.dto.FriendLinkDTO;
 import com.minzheng.blog.vo.PageResult;
@@ -48,6 +49,7 @@ public class FriendLinkController {
      * @return {@link Result<FriendLinkBackDTO>} 后台友链列表
      */
     @ApiOperation(value = "查看后台友链列表")
+    @Paging
     @GetMapping("/admin/links")
     public Result<PageResult<FriendLinkBackDTO>> listFriendLinkDTO(ConditionVO condition) {
         return Result.ok(friendLinkService.listFriendLinkDTO(condition));
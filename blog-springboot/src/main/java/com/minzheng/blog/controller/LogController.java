@@ -1,8 +1,10 @@
 package com.minzheng.blog.controller;
 
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.OperationLogDTO;
 import com.minzheng.blog.vo.ConditionVO;
 import com.minzheng.blog.vo.PageResult;
+import com.minzheng.blog.service.LogArchiveService;
 import com.minzheng.blog.service.OperationLogService;
 import com.minzheng.blog.vo.Result;
 import io.swagger.annotations.Api;
@@ -26,6 +28,8 @@ import java.util.List;
 public class LogController {
     @Autowired
     private OperationLogService operationLogService;
+    @Autowired
+    private LogArchiveService logArchiveService;
 
     /**
      * 查看操作日志
@@ -34,11 +38,25 @@ public class LogController {
      * @return {@link Result<OperationLogDTO>} 日志列表
      */
     @ApiOperation(value = "查看操作日志")
+    @Paging
     @GetMapping("/admin/operation/logs")
     public Result<PageResult<OperationLogDTO>> listOperationLogs(ConditionVO conditionVO) {
         return Result.ok(operationLogService.listOperationLogs(conditionVO));
     }
 
+    /**
+     * 查看归档操作日志
+     *
+     * @param conditionVO 条件
+     * @return {@link Result<OperationLogDTO>} 日志列表
+     */
+    @ApiOperation(value = "查看归档操作日志")
+    @Paging
+    @GetMapping("/admin/operation/logs/archive")
+    public Result<PageResult<OperationLogDTO>> listArchivedOperationLogs(ConditionVO conditionVO) {
+        return Result.ok(logArchiveService.listArchivedOperationLogs(conditionVO));
+    }
+
     /**
      * 删除操作日志
      *
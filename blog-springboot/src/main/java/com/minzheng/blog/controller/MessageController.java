@@ -3,6 +3,7 @@ package com.minzheng.blog.controller;
 
 import com.minzheng.blog.annotation.AccessLimit;
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.MessageBackDTO;
 import com.minzheng.blog.vo.PageResult;
 import com.minzheng.blog.vo.*;
@@ -63,6 +64,7 @@ public class MessageController {
      * @return {@link Result<MessageBackDTO>} 留言列表
      */
     @ApiOperation(value = "查看后台留言列表")
+    @Paging
     @GetMapping("/admin/messages")
     public Result<PageResult<MessageBackDTO>> listMessageBackDTO(ConditionVO condition) {
         return Result.ok(messageService.listMessageBackDTO(condition));
@@ -92,7 +94,7 @@ public class MessageController {
     @ApiOperation(value = "删除留言")
     @DeleteMapping("/admin/messages")
     public Result<?> deleteMessages(@RequestBody List<Integer> messageIdList) {
-        messageService.removeByIds(messageIdList);
+        messageService.deleteMessages(messageIdList);
         return Result.ok();
     }
 
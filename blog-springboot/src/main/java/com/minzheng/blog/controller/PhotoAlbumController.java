@@ -1,6 +1,7 @@
 package com.minzheng.blog.controller;
 
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.PhotoAlbumBackDTO;
 import com.minzheng.blog.dto.PhotoAlbumDTO;
 import com.minzheng.blog.enums.FilePathEnum;
@@ -71,6 +72,7 @@ public class PhotoAlbumController {
      * @return {@link Result<PhotoAlbumBackDTO>} 相册列表
      */
     @ApiOperation(value = "查看后台相册列表")
+    @Paging
     @GetMapping("/admin/photos/albums")
     public Result<PageResult<PhotoAlbumBackDTO>> listPhotoAlbumBacks(ConditionVO condition) {
         return Result.ok(photoAlbumService.listPhotoAlbumBacks(condition));
@@ -1,6 +1,7 @@
 package com.minzheng.blog.controller;
 
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.PhotoBackDTO;
 import com.minzheng.blog.dto.PhotoDTO;
 import com.minzheng.blog.service.PhotoService;
@@ -34,6 +35,7 @@ public class PhotoController {
      * @return {@link Result<PhotoBackDTO>} 照片列表
      */
     @ApiOperation(value = "根据相册id获取照片列表")
+    @Paging
     @GetMapping("/admin/photos")
     public Result<PageResult<PhotoBackDTO>> listPhotos(ConditionVO condition) {
         return Result.ok(photoService.listPhotos(condition));
@@ -116,6 +118,7 @@ public class PhotoController {
      * @return {@link Result<PhotoDTO>} 照片列表
      */
     @ApiOperation(value = "根据相册id查看照片列表")
+    @Paging
     @GetMapping("/albums/{albumId}/photos")
     public Result<PhotoDTO> listPhotosByAlbumId(@PathVariable("albumId") Integer albumId) {
         return Result.ok(photoService.listPhotosByAlbumId(albumId));
@@ -1,6 +1,7 @@
 package com.minzheng.blog.controller;
 
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.RoleDTO;
 import com.minzheng.blog.dto.UserRoleDTO;
 import com.minzheng.blog.service.RoleService;
@@ -49,6 +50,7 @@ public class RoleController {
      * @return {@link Result<RoleDTO>} 角色列表
      */
     @ApiOperation(value = "查询角色列表")
+    @Paging
     @GetMapping("/admin/roles")
     public Result<PageResult<RoleDTO>> listRoles(ConditionVO conditionVO) {
         return Result.ok(roleService.listRoles(conditionVO));
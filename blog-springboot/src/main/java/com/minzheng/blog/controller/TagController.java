@@ -2,6 +2,7 @@ package com.minzheng.blog.controller;
 
 
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.TagBackDTO;
 import com.minzheng.blog.vo.PageResult;
 import com.minzheng.blog.dto.TagDTO;
@@ -49,6 +50,7 @@ public class TagController {
      * @return {@link Result<TagBackDTO>} 标签列表
      */
     @ApiOperation(value = "查询后台标签列表")
+    @Paging
     @GetMapping("/admin/tags")
     public Result<PageResult<TagBackDTO>> listTagBackDTO(ConditionVO condition) {
         return Result.ok(tagService.listTagBackDTO(condition));
@@ -1,5 +1,6 @@
 package com.minzheng.blog.controller;
 
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.TalkBackDTO;
 import com.minzheng.blog.dto.TalkDTO;
 import com.minzheng.blog.enums.FilePathEnum;
@@ -50,6 +51,7 @@ public class TalkController {
      * @return {@link Result<TalkDTO>}
      */
     @ApiOperation(value = "查看说说列表")
+    @Paging
     @GetMapping("/talks")
     public Result<PageResult<TalkDTO>> listTalks() {
         return Result.ok(talkService.listTalks());
@@ -128,6 +130,7 @@ public class TalkController {
      * @return {@link Result<TalkBackDTO>} 说说列表
      */
     @ApiOperation(value = "查看后台说说")
+    @Paging
     @GetMapping("/admin/talks")
     public Result<PageResult<TalkBackDTO>> listBackTalks(ConditionVO conditionVO) {
         return Result.ok(talkService.listBackTalks(conditionVO));
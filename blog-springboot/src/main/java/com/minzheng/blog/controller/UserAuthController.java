@@ -3,6 +3,7 @@ package com.minzheng.blog.controller;
 
 import com.minzheng.blog.annotation.AccessLimit;
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.dto.UserAreaDTO;
 import com.minzheng.blog.dto.UserInfoDTO;
 import com.minzheng.blog.vo.PageResult;
@@ -66,6 +67,7 @@ public class UserAuthController {
      * @return {@link Result<UserBackDTO>} 用户列表
      */
     @ApiOperation(value = "查询后台用户列表")
+    @Paging
     @GetMapping("/admin/users")
     public Result<PageResult<UserBackDTO>> listUsers(ConditionVO condition) {
         return Result.ok(userAuthService.listUserBackDTO(condition));
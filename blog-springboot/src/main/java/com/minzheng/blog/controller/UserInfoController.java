@@ -2,6 +2,7 @@ package com.minzheng.blog.controller;
 
 
 import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
 import com.minzheng.blog.vo.PageResult;
 import com.minzheng.blog.dto.UserOnlineDTO;
 import com.minzheng.blog.service.UserInfoService;
@@ -105,6 +106,7 @@ public class UserInfoController {
      * @return {@link Result<UserOnlineDTO>} 在线用户列表
      */
     @ApiOperation(value = "查看在线用户")
+    @Paging
     @GetMapping("/admin/users/online")
     public Result<PageResult<UserOnlineDTO>> listOnlineUsers(ConditionVO conditionVO) {
         return Result.ok(userInfoService.listOnlineUsers(conditionVO));
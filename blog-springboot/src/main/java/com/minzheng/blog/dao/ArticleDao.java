@@ -24,9 +24,10 @@ public interface ArticleDao extends BaseMapper<Article> {
      *
      * @param current 页码
      * @param size    大小
+     * @param cursor  游标，为null时按页码查询
      * @return 文章列表
      */
-    List<ArticleHomeDTO> listArticles(@Param("current") Long current, @Param("size") Long size);
+    List<ArticleHomeDTO> listArticles(@Param("current") Long current, @Param("size") Long size, @Param("cursor") CursorDTO cursor);
 
     /**
      * 根据id查询文章
@@ -2,8 +2,11 @@ package com.minzheng.blog.dao;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.minzheng.blog.entity.ChatRecord;
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * 聊天记录
  *
@@ -12,4 +15,19 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface ChatRecordDao extends BaseMapper<ChatRecord> {
+
+    /**
+     * 批量插入聊天记录，id已预先分配
+     *
+     * @param chatRecordList 聊天记录列表
+     */
+    void insertBatch(@Param("chatRecordList") List<ChatRecord> chatRecordList);
+
+    /**
+     * 查询最大的记录id
+     *
+     * @return 最大id，没有记录时为null
+     */
+    Integer getMaxId();
+
 }
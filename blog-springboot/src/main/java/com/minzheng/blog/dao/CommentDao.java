@@ -26,9 +26,10 @@ public interface CommentDao extends BaseMapper<Comment> {
      * @param current   当前页码
      * @param size      大小
      * @param commentVO 评论信息
+     * @param cursor    游标，为null时按页码查询
      * @return 评论集合
      */
-    List<CommentDTO> listComments(@Param("current") Long current, @Param("size") Long size, @Param("commentVO") CommentVO commentVO);
+    List<CommentDTO> listComments(@Param("current") Long current, @Param("size") Long size, @Param("commentVO") CommentVO commentVO, @Param("cursor") CursorDTO cursor);
 
     /**
      * 查看评论id集合下的回复
@@ -44,9 +45,10 @@ public interface CommentDao extends BaseMapper<Comment> {
      * @param commentId 评论id
      * @param current   当前页码
      * @param size      大小
+     * @param cursor    游标，为null时按页码查询
      * @return 回复集合
      */
-    List<ReplyDTO> listRepliesByCommentId(@Param("current") Long current, @Param("size") Long size, @Param("commentId") Integer commentId);
+    List<ReplyDTO> listRepliesByCommentId(@Param("current") Long current, @Param("size") Long size, @Param("commentId") Integer commentId, @Param("cursor") CursorDTO cursor);
 
     /**
      * 根据评论id查询回复总量
@@ -1,10 +1,12 @@
 package com.minzheng.blog.dao;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import com.minzheng.blog.entity.Menu;
 import com.minzheng.blog.entity.OperationLog;
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 /**
  * 操作日志
@@ -14,4 +16,12 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface OperationLogDao extends BaseMapper<OperationLog> {
+
+    /**
+     * 批量插入操作日志
+     *
+     * @param operationLogList 操作日志列表
+     */
+    void insertBatch(@Param("operationLogList") List<OperationLog> operationLogList);
+
 }
@@ -1,5 +1,6 @@
 package com.minzheng.blog.dao;
 
+import com.minzheng.blog.dto.CursorDTO;
 import com.minzheng.blog.dto.TalkBackDTO;
 import com.minzheng.blog.dto.TalkDTO;
 import com.minzheng.blog.entity.Talk;
@@ -24,9 +25,10 @@ public interface TalkDao extends BaseMapper<Talk> {
      *
      * @param current 页码
      * @param size    大小
+     * @param cursor  游标，为null时按页码查询
      * @return {@link List<TalkDTO>}
      */
-    List<TalkDTO> listTalks(@Param("current") Long current, @Param("size") Long size);
+    List<TalkDTO> listTalks(@Param("current") Long current, @Param("size") Long size, @Param("cursor") CursorDTO cursor);
 
     /**
      * 查看后台说说
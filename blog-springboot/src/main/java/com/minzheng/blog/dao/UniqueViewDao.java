@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 
@@ -28,4 +29,12 @@ public interface UniqueViewDao extends BaseMapper<UniqueView> {
      */
     List<UniqueViewDTO> listUniqueViews(@Param("startTime") Date startTime, @Param("endTime") Date endTime);
 
+    /**
+     * 按天写入用户量，已存在时取较大值
+     *
+     * @param uniqueViewList 用户量列表，创建时间为当天零点
+     * @param updateTime     更新时间
+     */
+    void saveOrUpdateBatch(@Param("uniqueViewList") List<UniqueView> uniqueViewList, @Param("updateTime") LocalDateTime updateTime);
+
 }
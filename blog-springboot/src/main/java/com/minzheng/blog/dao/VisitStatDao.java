@@ -0,0 +1,47 @@
+package com.minzheng.blog.dao;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.minzheng.blog.dto.VisitStatDTO;
+import com.minzheng.blog.entity.VisitStat;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 每小时访问统计
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Repository
+public interface VisitStatDao extends BaseMapper<VisitStat> {
+
+    /**
+     * 按小时写入统计，已存在时取较大值
+     *
+     * @param visitStatList 统计列表
+     * @param updateTime    更新时间
+     */
+    void saveOrUpdateBatch(@Param("visitStatList") List<VisitStat> visitStatList, @Param("updateTime") LocalDateTime updateTime);
+
+    /**
+     * 查询每小时访问统计
+     *
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @return 访问统计
+     */
+    List<VisitStatDTO> listHourVisitStats(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 查询每天访问统计，访客数取每天的去重访客数，访问量为当天各小时之和
+     *
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @return 访问统计
+     */
+    List<VisitStatDTO> listDayVisitStats(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+}
@@ -0,0 +1,31 @@
+package com.minzheng.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * 分页游标
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorDTO {
+
+    /**
+     * 上一页最后一条记录的置顶状态，按置顶排序的列表使用
+     */
+    private Integer isTop;
+
+    /**
+     * 上一页最后一条记录的id
+     */
+    private Integer id;
+
+}
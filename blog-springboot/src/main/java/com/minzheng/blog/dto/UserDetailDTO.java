@@ -1,7 +1,6 @@
 package com.minzheng.blog.dto;
 
-import lombok.Builder;
-import lombok.Data;
+import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -58,6 +57,20 @@ public class UserDetailDTO implements UserDetails {
      */
     private List<String> roleList;
 
+    /**
+     * 用户角色集合，登录时生成，用于访问决策
+     */
+    private Set<String> roleSet;
+
+    /**
+     * 用户权限，由角色集合生成一次后复用
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient Collection<GrantedAuthority> authorities;
+
     /**
      * 用户昵称
      */
@@ -124,11 +137,19 @@ public class UserDetailDTO implements UserDetails {
     private LocalDateTime lastLoginTime;
 
 
+    public void setRoleSet(Set<String> roleSet) {
+        this.roleSet = roleSet;
+        this.authorities = null;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return this.roleList.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toSet());
+        if (this.authorities == null) {
+            this.authorities = Collections.unmodifiableSet(this.roleSet.stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toSet()));
+        }
+        return this.authorities;
     }
 
     @Override
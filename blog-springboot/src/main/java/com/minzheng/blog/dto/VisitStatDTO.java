@@ -0,0 +1,35 @@
+package com.minzheng.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 访问统计
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class VisitStatDTO {
+
+    /**
+     * 统计时间
+     */
+    private String time;
+
+    /**
+     * 访客数
+     */
+    private Integer uniqueView;
+
+    /**
+     * 页面访问量
+     */
+    private Integer pageView;
+
+}
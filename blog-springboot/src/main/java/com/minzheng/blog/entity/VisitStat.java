@@ -0,0 +1,57 @@
+package com.minzheng.blog.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 每小时访问统计
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@TableName("tb_visit_stat")
+public class VisitStat {
+
+    /**
+     * id
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Integer id;
+
+    /**
+     * 统计小时（整点）
+     */
+    private LocalDateTime visitHour;
+
+    /**
+     * 访客数
+     */
+    private Integer uniqueView;
+
+    /**
+     * 页面访问量
+     */
+    private Integer pageView;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 修改时间
+     */
+    @TableField(fill = FieldFill.UPDATE)
+    private LocalDateTime updateTime;
+
+}
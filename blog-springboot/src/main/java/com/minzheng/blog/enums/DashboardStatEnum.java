@@ -0,0 +1,37 @@
+package com.minzheng.blog.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 后台统计项枚举
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Getter
+@AllArgsConstructor
+public enum DashboardStatEnum {
+    /**
+     * 留言量
+     */
+    MESSAGE("留言量"),
+    /**
+     * 用户量
+     */
+    USER("用户量"),
+    /**
+     * 分类
+     */
+    CATEGORY("分类"),
+    /**
+     * 标签
+     */
+    TAG("标签");
+
+    /**
+     * 描述
+     */
+    private final String desc;
+
+}
@@ -0,0 +1,49 @@
+package com.minzheng.blog.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * ip解析模式枚举
+ *
+ * @author yezhiqiu
+ * @date 2021/07/28
+ */
+@Getter
+@AllArgsConstructor
+public enum IpSourceModeEnum {
+    /**
+     * 本地离线库
+     */
+    LOCAL("local", "localIpSourceStrategyImpl"),
+    /**
+     * 远程接口
+     */
+    REMOTE("remote", "remoteIpSourceStrategyImpl");
+
+    /**
+     * 模式
+     */
+    private final String mode;
+
+    /**
+     * 策略
+     */
+    private final String strategy;
+
+    /**
+     * 获取策略
+     *
+     * @param mode 模式
+     * @return {@link String} ip解析策略
+     */
+    public static String getStrategy(String mode) {
+        for (IpSourceModeEnum value : IpSourceModeEnum.values()) {
+            if (value.getMode().equals(mode)) {
+                return value.getStrategy();
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.minzheng.blog.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 访客统计模式枚举
+ *
+ * @author yezhiqiu
+ * @date 2021/08/06
+ */
+@Getter
+@AllArgsConstructor
+public enum UniqueVisitorModeEnum {
+    /**
+     * redis集合，精确统计
+     */
+    SET("set", "setUniqueVisitorStrategyImpl"),
+    /**
+     * redis HyperLogLog，近似统计，内存占用固定
+     */
+    HYPERLOGLOG("hyperloglog", "hyperLogLogUniqueVisitorStrategyImpl");
+
+    /**
+     * 模式
+     */
+    private final String mode;
+
+    /**
+     * 策略
+     */
+    private final String strategy;
+
+    /**
+     * 获取策略
+     *
+     * @param mode 模式
+     * @return {@link String} 访客统计策略
+     */
+    public static String getStrategy(String mode) {
+        for (UniqueVisitorModeEnum value : UniqueVisitorModeEnum.values()) {
+            if (value.getMode().equals(mode)) {
+                return value.getStrategy();
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.minzheng.blog.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 访问统计粒度枚举
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Getter
+@AllArgsConstructor
+public enum VisitStatTypeEnum {
+    /**
+     * 按小时
+     */
+    HOUR(1, "按小时"),
+    /**
+     * 按天
+     */
+    DAY(2, "按天");
+
+    /**
+     * 类型
+     */
+    private final Integer type;
+
+    /**
+     * 描述
+     */
+    private final String desc;
+
+}
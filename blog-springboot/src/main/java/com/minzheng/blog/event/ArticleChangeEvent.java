@@ -0,0 +1,23 @@
+package com.minzheng.blog.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 文章变更事件
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Data
+@AllArgsConstructor
+public class ArticleChangeEvent {
+
+    /**
+     * 变更的文章id集合，新增文章时为空
+     */
+    private List<Integer> articleIdList;
+
+}
@@ -0,0 +1,27 @@
+package com.minzheng.blog.event;
+
+import com.minzheng.blog.enums.DashboardStatEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 后台统计变更事件，文章变更使用{@link ArticleChangeEvent}
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Data
+@AllArgsConstructor
+public class DashboardChangeEvent {
+
+    /**
+     * 变更的统计项
+     */
+    private DashboardStatEnum stat;
+
+    /**
+     * 数量变化，只对留言量和用户量有效
+     */
+    private int delta;
+
+}
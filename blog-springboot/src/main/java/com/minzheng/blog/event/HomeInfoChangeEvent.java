@@ -0,0 +1,11 @@
+package com.minzheng.blog.event;
+
+/**
+ * 首页信息变更事件，用于页面和网站配置变更，文章、分类和标签变更由各自的事件触发
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+public class HomeInfoChangeEvent {
+
+}
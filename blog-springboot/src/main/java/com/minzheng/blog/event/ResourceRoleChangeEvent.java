@@ -0,0 +1,11 @@
+package com.minzheng.blog.event;
+
+/**
+ * 接口角色关系变更事件
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+public class ResourceRoleChangeEvent {
+
+}
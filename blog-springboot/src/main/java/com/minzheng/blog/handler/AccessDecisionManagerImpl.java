@@ -1,5 +1,6 @@
 package com.minzheng.blog.handler;
 
+import com.minzheng.blog.dto.UserDetailDTO;
 import org.springframework.security.access.AccessDecisionManager;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.ConfigAttribute;
@@ -9,8 +10,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * 访问决策管理器
@@ -22,14 +22,23 @@ import java.util.stream.Collectors;
 public class AccessDecisionManagerImpl implements AccessDecisionManager {
     @Override
     public void decide(Authentication authentication, Object o, Collection<ConfigAttribute> collection) throws AccessDeniedException, InsufficientAuthenticationException {
-        // 获取用户权限列表
-        List<String> permissionList = authentication.getAuthorities()
-                .stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList());
-        for (ConfigAttribute item : collection) {
-            if (permissionList.contains(item.getAttribute())) {
-                return;
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof UserDetailDTO) {
+            // 登录用户直接使用登录时生成的角色集合
+            Set<String> roleSet = ((UserDetailDTO) principal).getRoleSet();
+            for (ConfigAttribute item : collection) {
+                if (roleSet.contains(item.getAttribute())) {
+                    return;
+                }
+            }
+        } else {
+            // 匿名用户只有一个权限，逐个比较即可
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                for (ConfigAttribute item : collection) {
+                    if (authority.getAuthority().equals(item.getAttribute())) {
+                        return;
+                    }
+                }
             }
         }
         throw new AccessDeniedException("没有操作权限");
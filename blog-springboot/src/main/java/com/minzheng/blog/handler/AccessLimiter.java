@@ -0,0 +1,265 @@
+package com.minzheng.blog.handler;
+
+import cn.hutool.core.util.IdUtil;
+import com.minzheng.blog.service.RedisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.minzheng.blog.constant.RedisPrefixConst.ACCESS_LIMIT;
+
+/**
+ * 接口限流器
+ * <p>
+ * 两级限流：请求只访问本地令牌桶（GCRA算法，单个AtomicLong上CAS，无锁），放行的请求记为待同步；
+ * 后台定时把待同步的请求写入redis的zset滑动窗口，并取回集群内窗口中的请求时间，
+ * 集群内请求数已达上限时在本地封禁到窗口中最早的请求过期为止。
+ * redis不可用时按配置放行（只使用本地限流）或拒绝；拒绝期间定时探测redis，恢复后自动解除。
+ * 本地计数器数量有上限，达到上限时新的限流key不再创建本地计数器，直接按redis滑动窗口判断，
+ * 避免伪造大量客户端耗尽内存，也不会因此拒绝正常的新客户端。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+@Component
+public class AccessLimiter {
+
+    /**
+     * 本节点标识，用于生成集群内唯一的zset成员
+     */
+    private static final String NODE_ID = IdUtil.fastSimpleUUID();
+
+    /**
+     * redis不可用时是否放行
+     */
+    @Value("${access-limit.fail-open:true}")
+    private boolean failOpen;
+
+    /**
+     * 本地最多保存的限流key数量
+     */
+    @Value("${access-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @Autowired
+    private RedisService redisService;
+
+    /**
+     * 限流key -> 计数器
+     */
+    private final Map<String, LimitCounter> counterMap = new ConcurrentHashMap<>();
+
+    /**
+     * zset成员序号
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile boolean redisAvailable = true;
+
+    /**
+     * 因key数量达到上限直接访问redis的请求数
+     */
+    private final LongAdder overflowCount = new LongAdder();
+
+    /**
+     * 尝试获取一次访问许可
+     *
+     * @param key      限流key
+     * @param seconds  单位时间（秒）
+     * @param maxCount 单位时间最大请求次数
+     * @return 是否放行
+     */
+    public boolean tryAcquire(String key, long seconds, int maxCount) {
+        if (!redisAvailable && !failOpen) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        LimitCounter counter = counterMap.get(key);
+        if (Objects.isNull(counter)) {
+            if (counterMap.size() >= maxKeys) {
+                // 空闲的key在同步时清理，清理前新的key直接访问redis
+                overflowCount.increment();
+                return tryAcquireRemote(key, seconds, maxCount, now);
+            }
+            counter = counterMap.computeIfAbsent(key, item -> new LimitCounter(seconds, maxCount));
+        }
+        counter.lastAccessTime = now;
+        if (now < counter.blockedUntil || !counter.tryAcquire(System.nanoTime())) {
+            return false;
+        }
+        counter.pendingQueue.add(now);
+        return true;
+    }
+
+    /**
+     * 同步本地请求到redis滑动窗口，并根据集群请求数更新本地封禁时间
+     */
+    @Scheduled(fixedDelayString = "${access-limit.sync-interval:1000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        long overflowRequestCount = overflowCount.sumThenReset();
+        if (overflowRequestCount > 0) {
+            log.warn("限流key数量已达上限{}，{}次请求直接使用redis限流", maxKeys, overflowRequestCount);
+        }
+        Map<String, Map<Object, Double>> memberMap = new HashMap<>();
+        Map<String, Long> windowMap = new HashMap<>();
+        Map<String, LimitCounter> activeMap = new HashMap<>();
+        Iterator<Map.Entry<String, LimitCounter>> iterator = counterMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, LimitCounter> entry = iterator.next();
+            LimitCounter counter = entry.getValue();
+            // 窗口内没有访问的key不再同步
+            if (counter.pendingQueue.isEmpty() && now - counter.lastAccessTime > counter.windowMillis) {
+                iterator.remove();
+                continue;
+            }
+            String redisKey = ACCESS_LIMIT + entry.getKey();
+            Map<Object, Double> members = new HashMap<>();
+            Long time;
+            while ((time = counter.pendingQueue.poll()) != null) {
+                members.put(NODE_ID + ":" + sequence.incrementAndGet(), time.doubleValue());
+            }
+            memberMap.put(redisKey, members);
+            windowMap.put(redisKey, counter.windowMillis);
+            activeMap.put(redisKey, counter);
+        }
+        if (windowMap.isEmpty()) {
+            // redis不可用且拒绝请求时不会产生计数器，单独探测redis是否恢复
+            if (!redisAvailable) {
+                probeRedis();
+            }
+            return;
+        }
+        Map<String, List<Double>> scoreMap;
+        try {
+            scoreMap = redisService.zSlidingWindow(memberMap, windowMap, now);
+            redisAvailable = true;
+        } catch (Exception e) {
+            // 同步失败时丢弃本轮记录，本地令牌桶继续生效
+            redisAvailable = false;
+            log.warn("限流同步redis失败: " + e.getMessage());
+            return;
+        }
+        activeMap.forEach((redisKey, counter) -> {
+            List<Double> scoreList = scoreMap.get(redisKey);
+            if (scoreList.size() >= counter.maxCount) {
+                // 再放行一次需要等到第 size-maxCount+1 早的请求移出窗口
+                double earliest = scoreList.get(scoreList.size() - counter.maxCount);
+                counter.blockedUntil = (long) earliest + counter.windowMillis;
+            }
+        });
+    }
+
+    /**
+     * 不使用本地计数器，直接写入redis滑动窗口并按窗口内的请求数判断，
+     * 被拒绝的请求也计入窗口
+     *
+     * @param key      限流key
+     * @param seconds  单位时间（秒）
+     * @param maxCount 单位时间最大请求次数
+     * @param now      当前时间（毫秒）
+     * @return 是否放行
+     */
+    private boolean tryAcquireRemote(String key, long seconds, int maxCount, long now) {
+        String redisKey = ACCESS_LIMIT + key;
+        try {
+            Map<String, List<Double>> scoreMap = redisService.zSlidingWindow(
+                    Collections.singletonMap(redisKey, Collections.<Object, Double>singletonMap(NODE_ID + ":" + sequence.incrementAndGet(), (double) now)),
+                    Collections.singletonMap(redisKey, TimeUnit.SECONDS.toMillis(seconds)), now);
+            return scoreMap.get(redisKey).size() <= maxCount;
+        } catch (Exception e) {
+            return failOpen;
+        }
+    }
+
+    /**
+     * 探测redis是否恢复
+     */
+    private void probeRedis() {
+        try {
+            redisService.hasKey(ACCESS_LIMIT);
+            redisAvailable = true;
+            log.info("限流redis已恢复");
+        } catch (Exception e) {
+            log.warn("限流redis仍不可用: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 单个限流key的计数器
+     */
+    private static class LimitCounter {
+
+        /**
+         * 窗口长度（毫秒）
+         */
+        private final long windowMillis;
+
+        private final int maxCount;
+
+        /**
+         * 产生一个令牌的时间（纳秒）
+         */
+        private final long intervalNanos;
+
+        /**
+         * 允许的突发时长（纳秒），即窗口长度
+         */
+        private final long burstNanos;
+
+        /**
+         * GCRA理论到达时间（纳秒）
+         */
+        private final AtomicLong theoreticalArrivalTime = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * 待同步到redis的请求时间
+         */
+        private final Queue<Long> pendingQueue = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 根据集群请求数得到的封禁截止时间（毫秒）
+         */
+        private volatile long blockedUntil;
+
+        private volatile long lastAccessTime;
+
+        LimitCounter(long seconds, int maxCount) {
+            this.windowMillis = TimeUnit.SECONDS.toMillis(seconds);
+            this.maxCount = maxCount;
+            this.burstNanos = TimeUnit.SECONDS.toNanos(seconds);
+            this.intervalNanos = burstNanos / maxCount;
+        }
+
+        /**
+         * 本地令牌桶取一个令牌
+         *
+         * @param now 当前纳秒时间
+         * @return 是否取到
+         */
+        boolean tryAcquire(long now) {
+            while (true) {
+                long tat = theoreticalArrivalTime.get();
+                long newTat = (tat == Long.MIN_VALUE ? now : Math.max(tat, now)) + intervalNanos;
+                if (newTat - now > burstNanos) {
+                    return false;
+                }
+                if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                    return true;
+                }
+            }
+        }
+
+    }
+
+}
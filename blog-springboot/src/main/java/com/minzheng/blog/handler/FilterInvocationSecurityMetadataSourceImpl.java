@@ -1,75 +1,154 @@
 package com.minzheng.blog.handler;
 
 import com.minzheng.blog.dao.RoleDao;
-import com.minzheng.blog.dto.ResourceRoleDTO;
+import com.minzheng.blog.event.ResourceRoleChangeEvent;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.ConfigAttribute;
-import org.springframework.security.access.SecurityConfig;
 import org.springframework.security.web.FilterInvocation;
 import org.springframework.security.web.access.intercept.FilterInvocationSecurityMetadataSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.CollectionUtils;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.Collection;
-import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 接口拦截规则
+ * <p>
+ * 请求只读取当前的匹配器快照，从不访问数据库；接口角色关系变更后由后台线程重新加载并整体替换快照。
+ * 加载期间到达的多次变更合并为一次重新加载；加载失败时按递增的间隔重试，直到快照追上最新的变更版本。
  *
  * @author yezhiqiu
  * @date 2021/07/27
  */
+@Slf4j
 @Component
 public class FilterInvocationSecurityMetadataSourceImpl implements FilterInvocationSecurityMetadataSource {
 
     /**
-     * 资源角色列表
+     * 首次重试间隔（毫秒）
      */
-    private static List<ResourceRoleDTO> resourceRoleList;
+    private static final long RETRY_INTERVAL = 1000;
+
+    /**
+     * 最大重试间隔（毫秒）
+     */
+    private static final long MAX_RETRY_INTERVAL = 60 * 1000;
+
+    /**
+     * 接口角色匹配器快照
+     */
+    private final AtomicReference<ResourceRoleMatcher> resourceRoleMatcher = new AtomicReference<>();
+
+    /**
+     * 最新的变更版本号
+     */
+    private final AtomicLong changeVersion = new AtomicLong();
+
+    /**
+     * 是否正在重新加载
+     */
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    /**
+     * 连续加载失败的次数，只在加载线程中读写
+     */
+    private int failedTimes;
+
+    private final ScheduledExecutorService reloadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "resource-role-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Autowired
     private RoleDao roleDao;
 
     /**
-     * 加载资源角色信息
+     * 启动时加载资源角色信息
      */
     @PostConstruct
     private void loadDataSource() {
-        resourceRoleList = roleDao.listResourceRoles();
+        resourceRoleMatcher.set(new ResourceRoleMatcher(changeVersion.get(), roleDao.listResourceRoles()));
+    }
+
+    @PreDestroy
+    private void destroy() {
+        reloadExecutor.shutdownNow();
+    }
+
+    /**
+     * 接口角色关系变更，事务提交后重新加载
+     *
+     * @param event 变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceRoleChange(ResourceRoleChangeEvent event) {
+        this.clearDataSource();
     }
 
     /**
-     * 清空接口角色信息
+     * 修改接口角色关系后异步重新加载
      */
     public void clearDataSource() {
-        resourceRoleList = null;
+        changeVersion.incrementAndGet();
+        this.scheduleReload();
+    }
+
+    /**
+     * 没有正在进行的加载时提交一次加载任务
+     */
+    private void scheduleReload() {
+        if (reloading.compareAndSet(false, true)) {
+            reloadExecutor.execute(this::reload);
+        }
+    }
+
+    /**
+     * 重新加载资源角色信息，直到快照追上最新的变更版本
+     */
+    private void reload() {
+        try {
+            long version;
+            do {
+                version = changeVersion.get();
+                resourceRoleMatcher.set(new ResourceRoleMatcher(version, roleDao.listResourceRoles()));
+            } while (version != changeVersion.get());
+            failedTimes = 0;
+        } catch (Exception e) {
+            // 保持加载标记，期间到达的变更由重试一并加载
+            long delay = Math.min(RETRY_INTERVAL << Math.min(failedTimes++, 16), MAX_RETRY_INTERVAL);
+            log.error("重新加载资源角色信息失败，保留版本{}的快照，{}ms后重试",
+                    resourceRoleMatcher.get().getVersion(), delay, e);
+            if (!reloadExecutor.isShutdown()) {
+                reloadExecutor.schedule(this::reload, delay, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        reloading.set(false);
+        // 释放标记前新到的变更需要再加载一次
+        if (resourceRoleMatcher.get().getVersion() != changeVersion.get()) {
+            this.scheduleReload();
+        }
     }
 
     @Override
     public Collection<ConfigAttribute> getAttributes(Object object) throws IllegalArgumentException {
-        // 修改接口角色关系后重新加载
-        if (CollectionUtils.isEmpty(resourceRoleList)) {
-            this.loadDataSource();
-        }
         FilterInvocation fi = (FilterInvocation) object;
         // 获取用户请求方式
         String method = fi.getRequest().getMethod();
         // 获取用户请求Url
         String url = fi.getRequest().getRequestURI();
-        AntPathMatcher antPathMatcher = new AntPathMatcher();
         // 获取接口角色信息，若为匿名接口则放行，若无对应角色则禁止
-        for (ResourceRoleDTO resourceRoleDTO : resourceRoleList) {
-            if (antPathMatcher.match(resourceRoleDTO.getUrl(), url) && resourceRoleDTO.getRequestMethod().equals(method)) {
-                List<String> roleList = resourceRoleDTO.getRoleList();
-                if (CollectionUtils.isEmpty(roleList)) {
-                    return SecurityConfig.createList("disable");
-                }
-                return SecurityConfig.createList(roleList.toArray(new String[]{}));
-            }
-        }
-        return null;
+        return resourceRoleMatcher.get().match(method, url);
     }
 
     @Override
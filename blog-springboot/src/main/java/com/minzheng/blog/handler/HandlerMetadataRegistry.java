@@ -0,0 +1,116 @@
+package com.minzheng.blog.handler;
+
+import com.minzheng.blog.annotation.AccessLimit;
+import com.minzheng.blog.annotation.OptLog;
+import com.minzheng.blog.annotation.Paging;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.Getter;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 接口元数据注册表
+ * <p>
+ * 启动完成后扫描全部接口方法，一次性解析拦截器和切面需要的注解信息，请求时只需按方法查表。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Component
+public class HandlerMetadataRegistry implements ApplicationListener<ContextRefreshedEvent> {
+
+    /**
+     * spring mvc注解接口映射
+     */
+    private static final String HANDLER_MAPPING = "requestMappingHandlerMapping";
+
+    /**
+     * 接口方法 -> 元数据
+     */
+    private volatile Map<Method, HandlerMetadata> metadataMap = Collections.emptyMap();
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        if (!context.containsBean(HANDLER_MAPPING)) {
+            return;
+        }
+        RequestMappingHandlerMapping handlerMapping = context.getBean(HANDLER_MAPPING, RequestMappingHandlerMapping.class);
+        Map<Method, HandlerMetadata> map = new HashMap<>();
+        handlerMapping.getHandlerMethods().values()
+                .forEach(handlerMethod -> map.put(handlerMethod.getMethod(), new HandlerMetadata(handlerMethod.getMethod())));
+        metadataMap = map;
+    }
+
+    /**
+     * 获取接口元数据，未注册的方法（如启动完成前的请求）当场解析
+     *
+     * @param method 接口方法
+     * @return 元数据
+     */
+    public HandlerMetadata getMetadata(Method method) {
+        HandlerMetadata metadata = metadataMap.get(method);
+        return Objects.nonNull(metadata) ? metadata : new HandlerMetadata(method);
+    }
+
+    /**
+     * 接口元数据
+     */
+    @Getter
+    public static class HandlerMetadata {
+
+        /**
+         * 限流配置，不限流为null
+         */
+        private final AccessLimit accessLimit;
+
+        /**
+         * 是否分页查询
+         */
+        private final boolean pageable;
+
+        /**
+         * 操作日志配置，不记录为null
+         */
+        private final OptLog optLog;
+
+        /**
+         * 操作模块
+         */
+        private final String optModule;
+
+        /**
+         * 操作描述
+         */
+        private final String optDesc;
+
+        /**
+         * 操作方法
+         */
+        private final String optMethod;
+
+        HandlerMetadata(Method method) {
+            this.accessLimit = method.getAnnotation(AccessLimit.class);
+            this.pageable = method.isAnnotationPresent(Paging.class);
+            this.optLog = method.getAnnotation(OptLog.class);
+            Api api = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), Api.class);
+            ApiOperation apiOperation = method.getAnnotation(ApiOperation.class);
+            this.optModule = Objects.nonNull(api) && api.tags().length > 0 ? api.tags()[0] : "";
+            this.optDesc = Objects.nonNull(apiOperation) ? apiOperation.value() : "";
+            this.optMethod = method.getDeclaringClass().getName() + "." + method.getName();
+        }
+
+    }
+
+}
@@ -3,6 +3,8 @@ package com.minzheng.blog.handler;
 import com.aliyun.oss.common.utils.StringUtils;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.minzheng.blog.util.PageUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import javax.servlet.http.HttpServletRequest;
@@ -19,12 +21,24 @@ import static com.minzheng.blog.constant.CommonConst.*;
  * @date 2021/07/18
  **/
 public class PageableHandlerInterceptor implements HandlerInterceptor {
+    @Autowired
+    private HandlerMetadataRegistry handlerMetadataRegistry;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 非分页接口不解析分页参数
+        if (!(handler instanceof HandlerMethod)
+                || !handlerMetadataRegistry.getMetadata(((HandlerMethod) handler).getMethod()).isPageable()) {
+            return true;
+        }
         String currentPage = request.getParameter(CURRENT);
         String pageSize = Optional.ofNullable(request.getParameter(SIZE)).orElse(DEFAULT_SIZE);
-        if (!StringUtils.isNullOrEmpty(currentPage)) {
+        String after = request.getParameter(AFTER);
+        if (!StringUtils.isNullOrEmpty(after)) {
+            // 游标分页，从游标之后查询第一页
+            PageUtils.setCursor(PageUtils.decodeCursor(after));
+            PageUtils.setCurrentPage(new Page<>(1, Long.parseLong(pageSize)));
+        } else if (!StringUtils.isNullOrEmpty(currentPage)) {
             PageUtils.setCurrentPage(new Page<>(Long.parseLong(currentPage), Long.parseLong(pageSize)));
         }
         return true;
@@ -35,4 +49,4 @@ public class PageableHandlerInterceptor implements HandlerInterceptor {
         PageUtils.remove();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,295 @@
+package com.minzheng.blog.handler;
+
+import com.minzheng.blog.dto.ResourceRoleDTO;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.CollectionUtils;
+
+import java.util.*;
+
+/**
+ * 接口角色匹配器
+ * <p>
+ * 根据资源角色列表预先构建：每种请求方式一份精确路径哈希表和一棵按路径段组织的通配符前缀树，
+ * 无法按段拆分的模式（如 /a*b）放入兜底列表。匹配时先取出候选资源，再用 AntPathMatcher 确认，
+ * 多个资源匹配时取列表中最靠前的一个，与逐条匹配的结果一致。
+ * 不含通配符的路径模式在构建时就按同样的规则算好结果，请求路径与之完全相同时直接返回；
+ * 结果只按路径模式保存，数量不超过资源数，不随请求路径（如 /articles/123）增长。
+ * 构建完成后不再修改，请求线程只读无锁，资源变更时整体替换。
+ *
+ * @author yezhiqiu
+ * @date 2021/07/27
+ */
+public final class ResourceRoleMatcher {
+
+    /**
+     * 路径分隔符
+     */
+    private static final String SEPARATOR = "/";
+
+    /**
+     * 单段通配符
+     */
+    private static final String WILDCARD = "*";
+
+    /**
+     * 多段通配符
+     */
+    private static final String DOUBLE_WILDCARD = "**";
+
+    /**
+     * 未匹配到资源
+     */
+    private static final List<ConfigAttribute> NO_MATCH = Collections.emptyList();
+
+    /**
+     * 禁止访问
+     */
+    private static final List<ConfigAttribute> DISABLE = SecurityConfig.createList("disable");
+
+    private static final AntPathMatcher ANT_PATH_MATCHER = new AntPathMatcher();
+
+    /**
+     * 版本号，每次重新加载递增
+     */
+    private final long version;
+
+    /**
+     * 请求方式 -> 方法内的匹配结构
+     */
+    private final Map<String, MethodMatcher> methodMatcherMap = new HashMap<>();
+
+    public ResourceRoleMatcher(long version, List<ResourceRoleDTO> resourceRoleList) {
+        this.version = version;
+        for (int i = 0; i < resourceRoleList.size(); i++) {
+            ResourceRoleDTO resourceRoleDTO = resourceRoleList.get(i);
+            List<String> roleList = resourceRoleDTO.getRoleList();
+            List<ConfigAttribute> attributeList = CollectionUtils.isEmpty(roleList)
+                    ? DISABLE
+                    : SecurityConfig.createList(roleList.toArray(new String[]{}));
+            Entry entry = new Entry(i, resourceRoleDTO.getUrl(), attributeList);
+            methodMatcherMap.computeIfAbsent(resourceRoleDTO.getRequestMethod(), key -> new MethodMatcher()).add(entry);
+        }
+        methodMatcherMap.values().forEach(MethodMatcher::resolveExactPatterns);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 匹配接口所需角色
+     *
+     * @param method 请求方式
+     * @param url    请求路径
+     * @return 所需角色，未匹配到资源返回null
+     */
+    public Collection<ConfigAttribute> match(String method, String url) {
+        MethodMatcher methodMatcher = methodMatcherMap.get(method);
+        if (Objects.isNull(methodMatcher)) {
+            return null;
+        }
+        List<ConfigAttribute> attributeList = methodMatcher.exactResultMap.get(url);
+        if (Objects.isNull(attributeList)) {
+            Entry entry = methodMatcher.match(url);
+            attributeList = Objects.nonNull(entry) ? entry.attributeList : NO_MATCH;
+        }
+        return attributeList == NO_MATCH ? null : attributeList;
+    }
+
+    /**
+     * 拆分路径段，与 AntPathMatcher 一致忽略空段
+     *
+     * @param path 路径
+     * @return 路径段
+     */
+    private static String[] tokenize(String path) {
+        return Arrays.stream(path.split(SEPARATOR))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * 判断路径段是否为单段通配（* 或 {变量}）
+     *
+     * @param token 路径段
+     * @return 是否单段通配
+     */
+    private static boolean isSegmentWildcard(String token) {
+        return WILDCARD.equals(token)
+                || (token.startsWith("{") && token.endsWith("}") && token.indexOf(':') < 0);
+    }
+
+    /**
+     * 判断路径段是否包含通配符
+     *
+     * @param token 路径段
+     * @return 是否包含通配符
+     */
+    private static boolean hasWildcard(String token) {
+        return token.indexOf('*') >= 0 || token.indexOf('?') >= 0 || token.indexOf('{') >= 0;
+    }
+
+    /**
+     * 资源项
+     */
+    private static final class Entry {
+
+        /**
+         * 在资源列表中的位置，越小优先级越高
+         */
+        private final int index;
+
+        /**
+         * 路径模式
+         */
+        private final String pattern;
+
+        /**
+         * 所需角色
+         */
+        private final List<ConfigAttribute> attributeList;
+
+        private Entry(int index, String pattern, List<ConfigAttribute> attributeList) {
+            this.index = index;
+            this.pattern = pattern;
+            this.attributeList = attributeList;
+        }
+
+    }
+
+    /**
+     * 前缀树节点
+     */
+    private static final class Node {
+
+        /**
+         * 字面量子节点
+         */
+        private final Map<String, Node> children = new HashMap<>();
+
+        /**
+         * 单段通配子节点
+         */
+        private Node wildcardChild;
+
+        /**
+         * 多段通配子节点
+         */
+        private Node doubleWildcardChild;
+
+        /**
+         * 在此结束的资源
+         */
+        private final List<Entry> entryList = new ArrayList<>();
+
+    }
+
+    /**
+     * 单个请求方式的匹配结构
+     */
+    private static final class MethodMatcher {
+
+        /**
+         * 不含通配符的路径（按段规范化） -> 资源
+         */
+        private final Map<String, List<Entry>> exactMap = new HashMap<>();
+
+        /**
+         * 通配符路径前缀树
+         */
+        private final Node root = new Node();
+
+        /**
+         * 无法按段拆分的路径模式
+         */
+        private final List<Entry> fallbackList = new ArrayList<>();
+
+        /**
+         * 不含通配符的路径模式 -> 按完整规则算好的结果
+         */
+        private final Map<String, List<ConfigAttribute>> exactResultMap = new HashMap<>();
+
+        /**
+         * 全部资源加入后，计算每个不含通配符的路径模式作为请求路径时的结果
+         */
+        private void resolveExactPatterns() {
+            exactMap.values().forEach(entryList -> entryList.forEach(item -> {
+                Entry entry = match(item.pattern);
+                exactResultMap.put(item.pattern, Objects.nonNull(entry) ? entry.attributeList : NO_MATCH);
+            }));
+        }
+
+        private void add(Entry entry) {
+            String[] tokens = tokenize(entry.pattern);
+            if (Arrays.stream(tokens).noneMatch(ResourceRoleMatcher::hasWildcard)) {
+                exactMap.computeIfAbsent(String.join(SEPARATOR, tokens), key -> new ArrayList<>()).add(entry);
+                return;
+            }
+            Node node = root;
+            for (String token : tokens) {
+                if (DOUBLE_WILDCARD.equals(token)) {
+                    if (Objects.isNull(node.doubleWildcardChild)) {
+                        node.doubleWildcardChild = new Node();
+                    }
+                    node = node.doubleWildcardChild;
+                } else if (isSegmentWildcard(token)) {
+                    if (Objects.isNull(node.wildcardChild)) {
+                        node.wildcardChild = new Node();
+                    }
+                    node = node.wildcardChild;
+                } else if (!hasWildcard(token)) {
+                    node = node.children.computeIfAbsent(token, key -> new Node());
+                } else {
+                    fallbackList.add(entry);
+                    return;
+                }
+            }
+            node.entryList.add(entry);
+        }
+
+        private Entry match(String url) {
+            String[] tokens = tokenize(url);
+            List<Entry> candidateList = new ArrayList<>(fallbackList);
+            List<Entry> exactList = exactMap.get(String.join(SEPARATOR, tokens));
+            if (Objects.nonNull(exactList)) {
+                candidateList.addAll(exactList);
+            }
+            collect(root, tokens, 0, url.endsWith(SEPARATOR), candidateList);
+            // 候选资源按列表顺序确认，保证与逐条匹配结果一致
+            Entry result = null;
+            for (Entry entry : candidateList) {
+                if ((Objects.isNull(result) || entry.index < result.index) && ANT_PATH_MATCHER.match(entry.pattern, url)) {
+                    result = entry;
+                }
+            }
+            return result;
+        }
+
+        private void collect(Node node, String[] tokens, int index, boolean endsWithSeparator, List<Entry> candidateList) {
+            if (Objects.nonNull(node.doubleWildcardChild)) {
+                for (int i = index; i <= tokens.length; i++) {
+                    collect(node.doubleWildcardChild, tokens, i, endsWithSeparator, candidateList);
+                }
+            }
+            if (index == tokens.length) {
+                candidateList.addAll(node.entryList);
+                // AntPathMatcher 中 /a/* 可以匹配 /a/
+                if (endsWithSeparator && Objects.nonNull(node.wildcardChild)) {
+                    candidateList.addAll(node.wildcardChild.entryList);
+                }
+                return;
+            }
+            Node child = node.children.get(tokens[index]);
+            if (Objects.nonNull(child)) {
+                collect(child, tokens, index + 1, endsWithSeparator, candidateList);
+            }
+            if (Objects.nonNull(node.wildcardChild)) {
+                collect(node.wildcardChild, tokens, index + 1, endsWithSeparator, candidateList);
+            }
+        }
+
+    }
+
+}
@@ -2,12 +2,10 @@ package com.minzheng.blog.handler;
 
 import com.alibaba.fastjson.JSON;
 import com.minzheng.blog.annotation.AccessLimit;
-import com.minzheng.blog.service.RedisService;
 import com.minzheng.blog.util.IpUtils;
 import com.minzheng.blog.vo.Result;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
@@ -26,34 +24,29 @@ import static com.minzheng.blog.constant.CommonConst.APPLICATION_JSON;
 @Log4j2
 public class WebSecurityHandler implements HandlerInterceptor {
     @Autowired
-    private RedisService redisService;
+    private AccessLimiter accessLimiter;
+    @Autowired
+    private HandlerMetadataRegistry handlerMetadataRegistry;
 
     @Override
     public boolean preHandle(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, Object handler) throws Exception {
         // 如果请求输入方法
         if (handler instanceof HandlerMethod) {
             HandlerMethod hm = (HandlerMethod) handler;
-            // 获取方法中的注解,看是否有该注解
-            AccessLimit accessLimit = hm.getMethodAnnotation(AccessLimit.class);
+            // 从注册表获取方法的限流注解
+            AccessLimit accessLimit = handlerMetadataRegistry.getMetadata(hm.getMethod()).getAccessLimit();
             if (accessLimit != null) {
                 long seconds = accessLimit.seconds();
                 int maxCount = accessLimit.maxCount();
                 // 关于key的生成规则可以自己定义 本项目需求是对每个方法都加上限流功能，如果你只是针对ip地址限流，那么key只需要只用ip就好
                 String key = IpUtils.getIpAddress(httpServletRequest) + hm.getMethod().getName();
-                // 从redis中获取用户访问的次数
-                try {
-                    // 此操作代表获取该key对应的值自增1后的结果
-                    long q = redisService.incrExpire(key, seconds);
-                    if (q > maxCount) {
-                        render(httpServletResponse, Result.fail("请求过于频繁，请稍候再试"));
-                        log.warn(key + "请求次数超过每" + seconds + "秒" + maxCount + "次");
-                        return false;
-                    }
-                    return true;
-                } catch (RedisConnectionFailureException e) {
-                    log.warn("redis错误: " + e.getMessage());
+                // 本地令牌桶判断，集群请求数由限流器定时与redis同步
+                if (!accessLimiter.tryAcquire(key, seconds, maxCount)) {
+                    render(httpServletResponse, Result.fail("请求过于频繁，请稍候再试"));
+                    log.warn(key + "请求次数超过每" + seconds + "秒" + maxCount + "次");
                     return false;
                 }
+                return true;
             }
         }
         return true;
@@ -0,0 +1,352 @@
+package com.minzheng.blog.handler;
+
+import com.alibaba.fastjson.JSON;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * websocket消息发送器
+ * <p>
+ * 广播时消息只序列化一次，放入每个连接各自的有界发送队列后立即返回。每个连接同一时间只有一条异步发送，
+ * 发送完成的回调中继续发送队列中的下一条，慢连接只会积压自己的队列，不会阻塞广播和其他连接。
+ * 队列已满时按配置丢弃消息或断开连接，断开后客户端重连即可重新加载历史记录。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+@Component
+public class WebSocketBroadcaster {
+
+    /**
+     * 连接属性中保存发送队列的key
+     */
+    private static final String SENDER = WebSocketBroadcaster.class.getName() + ".sender";
+
+    /**
+     * 队列已满时断开连接
+     */
+    private static final String OVERFLOW_CLOSE = "close";
+
+    /**
+     * 延迟采样数，取2的幂
+     */
+    private static final int LATENCY_SAMPLE_SIZE = 4096;
+
+    /**
+     * 每个连接的发送队列容量
+     */
+    @Value("${websocket.outbound.queue-capacity:256}")
+    private int queueCapacity;
+
+    /**
+     * 单条消息发送超时时间（毫秒）
+     */
+    @Value("${websocket.outbound.send-timeout:10000}")
+    private long sendTimeout;
+
+    /**
+     * 队列已满时的处理方式：drop丢弃消息，close断开连接
+     */
+    @Value("${websocket.outbound.overflow:close}")
+    private String overflow;
+
+    /**
+     * 发送线程数，只负责发起异步发送和关闭连接，不会阻塞在网络写入上
+     */
+    @Value("${websocket.broadcast.pool-size:2}")
+    private int poolSize;
+
+    private ExecutorService sendExecutor;
+
+    /**
+     * 从入队到发送完成的延迟采样（纳秒）
+     */
+    private final AtomicLongArray latencySamples = new AtomicLongArray(LATENCY_SAMPLE_SIZE);
+
+    private final AtomicLong latencyCount = new AtomicLong();
+
+    /**
+     * 上次输出统计时的采样数
+     */
+    private long reportedLatencyCount;
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder closedCount = new LongAdder();
+
+    @PostConstruct
+    private void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        sendExecutor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "websocket-send-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    private void destroy() {
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * 新连接创建发送队列
+     *
+     * @param session 连接
+     */
+    public void register(Session session) {
+        session.getAsyncRemote().setSendTimeout(sendTimeout);
+        session.getUserProperties().put(SENDER, new SessionSender(session));
+    }
+
+    /**
+     * 连接关闭后清空发送队列
+     *
+     * @param session 连接
+     */
+    public void unregister(Session session) {
+        SessionSender sender = (SessionSender) session.getUserProperties().remove(SENDER);
+        if (Objects.nonNull(sender)) {
+            sender.queue.clear();
+        }
+    }
+
+    /**
+     * 广播消息
+     *
+     * @param message  消息
+     * @param sessions 连接集合
+     */
+    public void broadcast(Object message, Iterable<Session> sessions) {
+        broadcastText(JSON.toJSONString(message), sessions);
+    }
+
+    /**
+     * 广播序列化好的消息
+     *
+     * @param text     序列化好的消息
+     * @param sessions 连接集合
+     */
+    public void broadcastText(String text, Iterable<Session> sessions) {
+        OutboundMessage outboundMessage = new OutboundMessage(text);
+        for (Session session : sessions) {
+            offer(session, outboundMessage);
+        }
+    }
+
+    /**
+     * 向单个连接发送消息
+     *
+     * @param session 连接
+     * @param text    序列化好的消息
+     */
+    public void send(Session session, String text) {
+        offer(session, new OutboundMessage(text));
+    }
+
+    /**
+     * 发送延迟分位数（毫秒），基于最近的采样
+     *
+     * @return p50、p95、p99和最大值
+     */
+    public Map<String, Double> getLatencyPercentiles() {
+        int size = (int) Math.min(latencyCount.get(), LATENCY_SAMPLE_SIZE);
+        long[] samples = new long[size];
+        for (int i = 0; i < size; i++) {
+            samples[i] = latencySamples.get(i);
+        }
+        Arrays.sort(samples);
+        Map<String, Double> percentileMap = new LinkedHashMap<>();
+        percentileMap.put("p50", percentile(samples, 0.50));
+        percentileMap.put("p95", percentile(samples, 0.95));
+        percentileMap.put("p99", percentile(samples, 0.99));
+        percentileMap.put("max", percentile(samples, 1.0));
+        return percentileMap;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getClosedCount() {
+        return closedCount.sum();
+    }
+
+    /**
+     * 定时输出发送统计
+     */
+    @Scheduled(fixedDelayString = "${websocket.broadcast.report-interval:60000}")
+    public void report() {
+        long count = latencyCount.get();
+        if (count == reportedLatencyCount) {
+            return;
+        }
+        reportedLatencyCount = count;
+        log.info("websocket发送延迟(ms): {}, 丢弃消息: {}, 断开连接: {}",
+                getLatencyPercentiles(), droppedCount.sum(), closedCount.sum());
+    }
+
+    private void offer(Session session, OutboundMessage message) {
+        SessionSender sender = (SessionSender) session.getUserProperties().get(SENDER);
+        if (Objects.isNull(sender) || !session.isOpen()) {
+            return;
+        }
+        if (sender.queue.offer(message)) {
+            sender.trySend();
+            return;
+        }
+        droppedCount.increment();
+        if (OVERFLOW_CLOSE.equals(overflow)) {
+            close(sender, "发送队列已满");
+        }
+    }
+
+    /**
+     * 在发送线程中断开连接，避免阻塞广播
+     *
+     * @param sender 发送队列
+     * @param reason 原因
+     */
+    private void close(SessionSender sender, String reason) {
+        if (!sender.closed.compareAndSet(false, true)) {
+            return;
+        }
+        sender.queue.clear();
+        closedCount.increment();
+        sendExecutor.execute(() -> {
+            try {
+                sender.session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, reason));
+            } catch (IOException e) {
+                log.warn("websocket断开连接失败: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void recordLatency(long nanos) {
+        long index = latencyCount.getAndIncrement();
+        latencySamples.set((int) (index & (LATENCY_SAMPLE_SIZE - 1)), nanos);
+    }
+
+    private static double percentile(long[] sortedSamples, double percentile) {
+        if (sortedSamples.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * 待发送的消息，同一条广播的所有连接共用一个实例
+     */
+    private static class OutboundMessage {
+
+        private final String text;
+
+        /**
+         * 入队时间（纳秒）
+         */
+        private final long createNanos;
+
+        OutboundMessage(String text) {
+            this.text = text;
+            this.createNanos = System.nanoTime();
+        }
+
+    }
+
+    /**
+     * 单个连接的发送队列
+     */
+    private class SessionSender implements SendHandler {
+
+        private final Session session;
+
+        private final BlockingQueue<OutboundMessage> queue;
+
+        /**
+         * 是否有正在进行的异步发送
+         */
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private volatile OutboundMessage current;
+
+        SessionSender(Session session) {
+            this.session = session;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        /**
+         * 没有正在进行的发送时，发送队列中的下一条消息
+         */
+        void trySend() {
+            while (sending.compareAndSet(false, true)) {
+                OutboundMessage message = queue.poll();
+                if (Objects.isNull(message)) {
+                    sending.set(false);
+                    // 释放标记前可能有新消息入队
+                    if (queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                current = message;
+                try {
+                    session.getAsyncRemote().sendText(message.text, this);
+                } catch (Exception e) {
+                    // 连接已关闭
+                    current = null;
+                    queue.clear();
+                    sending.set(false);
+                }
+                return;
+            }
+        }
+
+        @Override
+        public void onResult(SendResult result) {
+            OutboundMessage message = current;
+            current = null;
+            if (Objects.nonNull(message)) {
+                recordLatency(System.nanoTime() - message.createNanos);
+            }
+            if (!result.isOK()) {
+                log.warn("websocket发送失败: {}", result.getException().getMessage());
+                close(this, "发送失败");
+            }
+            sending.set(false);
+            if (!queue.isEmpty()) {
+                // 回调可能在发送线程中同步执行，交给线程池继续发送，避免递归
+                try {
+                    sendExecutor.execute(this::trySend);
+                } catch (RejectedExecutionException e) {
+                    queue.clear();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,298 @@
+package com.minzheng.blog.handler;
+
+import cn.hutool.core.util.IdUtil;
+import com.alibaba.fastjson.JSON;
+import com.minzheng.blog.cache.ChatHistoryBuffer;
+import com.minzheng.blog.dto.RecallMessageDTO;
+import com.minzheng.blog.dto.WebsocketMessageDTO;
+import com.minzheng.blog.entity.ChatRecord;
+import com.minzheng.blog.enums.ChatTypeEnum;
+import com.minzheng.blog.service.RedisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.minzheng.blog.constant.RedisPrefixConst.*;
+import static com.minzheng.blog.enums.ChatTypeEnum.ONLINE_COUNT;
+
+/**
+ * websocket集群转发
+ * <p>
+ * 多实例部署时每个节点只持有自己的连接。广播的消息序列化一次后先发给本节点的连接，
+ * 再以"节点id|消息"的格式发布到redis频道，其他节点收到后发给各自的连接并同步最近聊天记录缓存。
+ * 在线人数：每个节点在redis中保存自己的人数并定时续期，人数变化时通知其他节点，
+ * 各节点合并一小段时间内的变化后，汇总所有存活节点的人数只广播一次。
+ * 未开启集群时只在本节点广播，在线人数即本节点人数。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+@Component
+public class WebSocketClusterRelay implements MessageListener {
+
+    /**
+     * 节点id
+     */
+    private static final String NODE_ID = IdUtil.fastSimpleUUID();
+
+    /**
+     * 节点id与消息的分隔符
+     */
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 是否开启集群转发
+     */
+    @Value("${websocket.cluster.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 节点在线人数的续期间隔（毫秒），超过3个间隔未续期的节点视为下线
+     */
+    @Value("${websocket.cluster.heartbeat-interval:10000}")
+    private long heartbeatInterval;
+
+    /**
+     * 在线人数广播的合并时间（毫秒）
+     */
+    @Value("${websocket.online-count.coalesce-delay:500}")
+    private long coalesceDelay;
+
+    @Autowired
+    private WebSocketSessionRegistry webSocketSessionRegistry;
+
+    @Autowired
+    private WebSocketBroadcaster webSocketBroadcaster;
+
+    @Autowired
+    private ChatHistoryBuffer chatHistoryBuffer;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /**
+     * 是否已安排在线人数广播
+     */
+    private final AtomicBoolean broadcastScheduled = new AtomicBoolean();
+
+    /**
+     * 本节点人数是否有未上报的变化
+     */
+    private final AtomicBoolean localCountChanged = new AtomicBoolean();
+
+    /**
+     * 上次广播的在线人数
+     */
+    private volatile int broadcastCount = -1;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    private void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "websocket-online-count");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            redisMessageListenerContainer.addMessageListener(this, Arrays.asList(
+                    new ChannelTopic(WEBSOCKET_MESSAGE_CHANNEL), new ChannelTopic(WEBSOCKET_ONLINE_CHANNEL)));
+            // 续期在自己的线程中执行，不受其他定时任务耗时影响，避免节点key过期
+            scheduler.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatInterval, TimeUnit.MILLISECONDS);
+            log.info("websocket集群转发已开启，节点: {}", NODE_ID);
+        }
+    }
+
+    @PreDestroy
+    private void destroy() {
+        scheduler.shutdownNow();
+        if (!enabled) {
+            return;
+        }
+        try {
+            // 下线后通知其他节点重新汇总
+            redisMessageListenerContainer.removeMessageListener(this);
+            redisService.sRemove(WEBSOCKET_NODES, NODE_ID);
+            redisService.del(WEBSOCKET_ONLINE_COUNT + NODE_ID);
+            stringRedisTemplate.convertAndSend(WEBSOCKET_ONLINE_CHANNEL, NODE_ID);
+        } catch (Exception e) {
+            log.warn("websocket节点下线通知失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 广播消息到所有节点的连接
+     *
+     * @param messageDTO 消息
+     */
+    public void broadcast(WebsocketMessageDTO messageDTO) {
+        String text = JSON.toJSONString(messageDTO);
+        webSocketBroadcaster.broadcastText(text, webSocketSessionRegistry.getSessions());
+        if (enabled) {
+            try {
+                stringRedisTemplate.convertAndSend(WEBSOCKET_MESSAGE_CHANNEL, NODE_ID + SEPARATOR + text);
+            } catch (Exception e) {
+                log.error("websocket消息发布失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 本节点连接变化后，合并一段时间再广播在线人数
+     */
+    public void onlineCountChanged() {
+        localCountChanged.set(true);
+        scheduleOnlineCountBroadcast();
+    }
+
+    /**
+     * 收到其他节点的消息
+     *
+     * @param message 消息
+     * @param pattern 订阅的频道
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (WEBSOCKET_ONLINE_CHANNEL.equals(channel)) {
+            if (!NODE_ID.equals(body)) {
+                scheduleOnlineCountBroadcast();
+            }
+            return;
+        }
+        int index = body.indexOf(SEPARATOR);
+        if (index < 0 || NODE_ID.equals(body.substring(0, index))) {
+            // 本节点发布的消息已在发布前发送
+            return;
+        }
+        String text = body.substring(index + 1);
+        try {
+            syncChatHistory(JSON.parseObject(text, WebsocketMessageDTO.class));
+        } catch (Exception e) {
+            log.warn("websocket消息同步聊天记录失败: {}", e.getMessage());
+        }
+        webSocketBroadcaster.broadcastText(text, webSocketSessionRegistry.getSessions());
+    }
+
+    /**
+     * 定时续期本节点的在线人数，其他节点下线导致总人数变化时重新广播
+     */
+    private void heartbeat() {
+        try {
+            saveLocalCount();
+            if (countClusterOnline() != broadcastCount) {
+                scheduleOnlineCountBroadcast();
+            }
+        } catch (Exception e) {
+            log.warn("websocket节点续期失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 其他节点的聊天、语音和撤回同步到本节点的最近聊天记录缓存
+     *
+     * @param messageDTO 消息
+     */
+    private void syncChatHistory(WebsocketMessageDTO messageDTO) {
+        ChatTypeEnum chatType = ChatTypeEnum.getChatType(messageDTO.getType());
+        if (Objects.isNull(chatType)) {
+            return;
+        }
+        switch (chatType) {
+            case SEND_MESSAGE:
+            case VOICE_MESSAGE:
+                chatHistoryBuffer.append(JSON.parseObject(JSON.toJSONString(messageDTO.getData()), ChatRecord.class));
+                break;
+            case RECALL_MESSAGE:
+                chatHistoryBuffer.remove(JSON.parseObject(JSON.toJSONString(messageDTO.getData()), RecallMessageDTO.class).getId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 合并时间内只安排一次广播，广播时取最新的在线人数
+     */
+    private void scheduleOnlineCountBroadcast() {
+        if (!broadcastScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            // 先重置标记，广播期间的变化会安排下一次广播
+            broadcastScheduled.set(false);
+            int onlineCount = webSocketSessionRegistry.getOnlineCount();
+            if (enabled) {
+                try {
+                    if (localCountChanged.getAndSet(false)) {
+                        saveLocalCount();
+                        stringRedisTemplate.convertAndSend(WEBSOCKET_ONLINE_CHANNEL, NODE_ID);
+                    }
+                    onlineCount = countClusterOnline();
+                } catch (Exception e) {
+                    log.warn("websocket在线人数汇总失败: {}", e.getMessage());
+                }
+            }
+            broadcastCount = onlineCount;
+            WebsocketMessageDTO messageDTO = WebsocketMessageDTO.builder()
+                    .type(ONLINE_COUNT.getType())
+                    .data(onlineCount)
+                    .build();
+            webSocketBroadcaster.broadcast(messageDTO, webSocketSessionRegistry.getSessions());
+        }, coalesceDelay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 保存本节点的在线人数
+     */
+    private void saveLocalCount() {
+        redisService.sAdd(WEBSOCKET_NODES, NODE_ID);
+        redisService.set(WEBSOCKET_ONLINE_COUNT + NODE_ID, webSocketSessionRegistry.getOnlineCount(),
+                TimeUnit.MILLISECONDS.toSeconds(heartbeatInterval * 3));
+    }
+
+    /**
+     * 汇总所有存活节点的在线人数，清理已过期的节点
+     *
+     * @return 在线人数
+     */
+    private int countClusterOnline() {
+        int total = 0;
+        Set<Object> nodeSet = redisService.sMembers(WEBSOCKET_NODES);
+        for (Object node : nodeSet) {
+            Object count = redisService.get(WEBSOCKET_ONLINE_COUNT + node);
+            if (Objects.isNull(count)) {
+                redisService.sRemove(WEBSOCKET_NODES, node);
+                continue;
+            }
+            total += ((Number) count).intValue();
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.minzheng.blog.handler;
+
+import org.springframework.stereotype.Component;
+
+import javax.websocket.Session;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * websocket连接注册表
+ * <p>
+ * 按连接id保存在ConcurrentHashMap中，连接和断开都是O(1)，遍历时不复制集合。
+ * 只保存本节点的连接，在线人数的汇总和广播由{@link WebSocketClusterRelay}负责。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Component
+public class WebSocketSessionRegistry {
+
+    /**
+     * 连接id -> 连接
+     */
+    private final Map<String, Session> sessionMap = new ConcurrentHashMap<>();
+
+    private final AtomicInteger onlineCount = new AtomicInteger();
+
+    /**
+     * 加入连接
+     *
+     * @param session 连接
+     */
+    public void add(Session session) {
+        if (Objects.isNull(sessionMap.put(session.getId(), session))) {
+            onlineCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 移除连接
+     *
+     * @param session 连接
+     * @return 连接是否存在
+     */
+    public boolean remove(Session session) {
+        if (Objects.nonNull(sessionMap.remove(session.getId()))) {
+            onlineCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 本节点的全部连接，弱一致的视图，不复制集合
+     *
+     * @return 连接集合
+     */
+    public Collection<Session> getSessions() {
+        return sessionMap.values();
+    }
+
+    /**
+     * 本节点的在线人数
+     *
+     * @return 在线人数
+     */
+    public int getOnlineCount() {
+        return onlineCount.get();
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.minzheng.blog.service;
+
+import com.minzheng.blog.dto.OperationLogDTO;
+import com.minzheng.blog.vo.ConditionVO;
+import com.minzheng.blog.vo.PageResult;
+
+/**
+ * 日志归档服务
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+public interface LogArchiveService {
+
+    /**
+     * 归档过期的操作日志和聊天记录
+     */
+    void archive();
+
+    /**
+     * 查询已归档的操作日志
+     *
+     * @param conditionVO 条件
+     * @return 日志列表
+     */
+    PageResult<OperationLogDTO> listArchivedOperationLogs(ConditionVO conditionVO);
+
+}
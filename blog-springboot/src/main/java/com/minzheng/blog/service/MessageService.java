@@ -40,6 +40,13 @@ public interface MessageService extends IService<Message> {
      */
     void updateMessagesReview(ReviewVO reviewVO);
 
+    /**
+     * 删除留言
+     *
+     * @param messageIdList 留言id列表
+     */
+    void deleteMessages(List<Integer> messageIdList);
+
     /**
      * 查看后台留言
      *
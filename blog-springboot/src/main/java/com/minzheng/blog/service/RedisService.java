@@ -6,6 +6,7 @@ import org.springframework.data.geo.GeoResults;
 import org.springframework.data.geo.Point;
 import org.springframework.data.redis.connection.RedisGeoCommands;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -149,6 +150,15 @@ public interface RedisService {
      */
     Map<String, Object> hGetAll(String key);
 
+    /**
+     * 批量获取Hash结构中的属性
+     *
+     * @param key      外部key值
+     * @param hashKeys 内部key值集合
+     * @return 返回内部key与value的映射，不存在的内部key不包含在内
+     */
+    Map<String, Object> hMultiGet(String key, Collection<String> hashKeys);
+
     /**
      * 直接设置整个Hash结构
      *
@@ -214,6 +224,14 @@ public interface RedisService {
      */
     Double zIncr(String key, Object value, Double score);
 
+    /**
+     * zset批量添加分数，使用管道一次提交
+     *
+     * @param key      关键
+     * @param scoreMap 元素及其增加的分数
+     */
+    void zIncrAll(String key, Map<Object, Double> scoreMap);
+
     /**
      * zset减少分数
      *
@@ -243,6 +261,15 @@ public interface RedisService {
      */
     Double zScore(String key, Object value);
 
+    /**
+     * 批量获取zset指定元素分数，使用管道一次提交
+     *
+     * @param key    关键
+     * @param values 元素集合
+     * @return {@link Map} 元素与分数的映射，不存在的元素不包含在内
+     */
+    Map<Object, Double> zMultiScore(String key, Collection<?> values);
+
     /**
      * 获取zset所有分数
      *
@@ -251,6 +278,18 @@ public interface RedisService {
      */
     Map<Object, Double> zAllScore(String key);
 
+    /**
+     * 批量维护zset滑动窗口，使用管道一次提交
+     * <p>
+     * 对每个key：写入新成员，移除分数早于窗口起点的成员，按窗口长度刷新过期时间，并返回窗口内的分数
+     *
+     * @param memberMap key与新成员（成员 -> 时间戳毫秒）的映射
+     * @param windowMap key与窗口长度（毫秒）的映射，需包含全部key
+     * @param now       当前时间戳（毫秒）
+     * @return {@link Map} key与窗口内分数（升序）的映射
+     */
+    Map<String, List<Double>> zSlidingWindow(Map<String, Map<Object, Double>> memberMap, Map<String, Long> windowMap, long now);
+
     /**
      * 获取Set结构
      *
@@ -259,6 +298,14 @@ public interface RedisService {
      */
     Set<Object> sMembers(String key);
 
+    /**
+     * 批量获取Set结构，使用管道一次提交
+     *
+     * @param keys key集合
+     * @return 与key顺序一致的set集合列表
+     */
+    List<Set<Object>> sMembersAll(List<String> keys);
+
     /**
      * 向Set结构中添加属性
      *
@@ -278,6 +325,16 @@ public interface RedisService {
      */
     Long sAddExpire(String key, long time, Object... values);
 
+    /**
+     * 向多个Set中添加同一个值并设置过期时间，使用管道一次提交
+     *
+     * @param keys  key集合
+     * @param value 值
+     * @param time  过期时间（秒）
+     * @return 与key顺序一致的添加个数
+     */
+    List<Long> sAddAll(List<String> keys, Object value, long time);
+
     /**
      * 是否为Set中的属性
      *
@@ -398,6 +455,16 @@ public interface RedisService {
      */
     Boolean bitGet(String key, int offset);
 
+    /**
+     * 管道批量置位并设置过期时间
+     *
+     * @param key     key
+     * @param offsets 位下标
+     * @param time    过期时间（秒）
+     * @return 是否有位从0变为1
+     */
+    boolean bitAddAll(String key, long[] offsets, long time);
+
     /**
      * 获取bitmap的key值总和
      *
@@ -433,6 +500,16 @@ public interface RedisService {
      */
     Long hyperAdd(String key, Object... value);
 
+    /**
+     * 向多个hyperlog中添加同一个值并设置过期时间，使用管道一次提交
+     *
+     * @param keys  key集合
+     * @param value 值
+     * @param time  过期时间（秒）
+     * @return 与key顺序一致的添加结果，1表示hyperlog发生变化
+     */
+    List<Long> hyperAddAll(List<String> keys, Object value, long time);
+
     /**
      * 获取hyperlog元素数量
      *
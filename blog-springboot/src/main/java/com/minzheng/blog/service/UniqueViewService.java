@@ -1,8 +1,10 @@
 package com.minzheng.blog.service;
 
 import com.minzheng.blog.dto.UniqueViewDTO;
+import com.minzheng.blog.dto.VisitStatDTO;
 import com.minzheng.blog.entity.UniqueView;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.minzheng.blog.vo.ConditionVO;
 
 import java.util.List;
 
@@ -21,4 +23,17 @@ public interface UniqueViewService extends IService<UniqueView> {
      */
     List<UniqueViewDTO> listUniqueViews();
 
+    /**
+     * 记录一次页面访问
+     */
+    void addPageView();
+
+    /**
+     * 按小时或按天查询访问统计
+     *
+     * @param conditionVO 条件，type为统计粒度
+     * @return {@link List<VisitStatDTO>} 访问统计
+     */
+    List<VisitStatDTO> listVisitStats(ConditionVO conditionVO);
+
 }
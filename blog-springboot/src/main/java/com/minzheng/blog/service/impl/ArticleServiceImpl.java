@@ -6,6 +6,8 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.minzheng.blog.cache.ArticleCache;
+import com.minzheng.blog.cache.ArticleViewsCountBuffer;
 import com.minzheng.blog.dao.ArticleDao;
 import com.minzheng.blog.dao.ArticleTagDao;
 import com.minzheng.blog.dao.CategoryDao;
@@ -17,6 +19,7 @@ import com.minzheng.blog.entity.Category;
 import com.minzheng.blog.entity.Tag;
 import com.minzheng.blog.enums.FileExtEnum;
 import com.minzheng.blog.enums.FilePathEnum;
+import com.minzheng.blog.event.ArticleChangeEvent;
 import com.minzheng.blog.exception.BizException;
 import com.minzheng.blog.service.*;
 import com.minzheng.blog.strategy.context.SearchStrategyContext;
@@ -28,6 +31,7 @@ import com.minzheng.blog.util.UserUtils;
 import com.minzheng.blog.vo.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -75,6 +79,12 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
     private BlogInfoService blogInfoService;
     @Autowired
     private UploadStrategyContext uploadStrategyContext;
+    @Autowired
+    private ArticleCache articleCache;
+    @Autowired
+    private ArticleViewsCountBuffer articleViewsCountBuffer;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public PageResult<ArchiveDTO> listArchives() {
@@ -97,9 +107,14 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
         }
         // 查询后台文章
         List<ArticleBackDTO> articleBackDTOList = articleDao.listArticleBacks(PageUtils.getLimitCurrent(), PageUtils.getSize(), condition);
-        // 查询文章点赞量和浏览量
-        Map<Object, Double> viewsCountMap = redisService.zAllScore(ARTICLE_VIEWS_COUNT);
-        Map<String, Object> likeCountMap = redisService.hGetAll(ARTICLE_LIKE_COUNT);
+        // 查询当前页文章的点赞量和浏览量
+        List<Integer> articleIdList = articleBackDTOList.stream()
+                .map(ArticleBackDTO::getId)
+                .collect(Collectors.toList());
+        Map<Object, Double> viewsCountMap = redisService.zMultiScore(ARTICLE_VIEWS_COUNT, articleIdList);
+        Map<String, Object> likeCountMap = redisService.hMultiGet(ARTICLE_LIKE_COUNT, articleIdList.stream()
+                .map(Object::toString)
+                .collect(Collectors.toList()));
         // 封装点赞量和浏览量
         articleBackDTOList.forEach(item -> {
             Double viewsCount = viewsCountMap.get(item.getId());
@@ -113,7 +128,13 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
 
     @Override
     public List<ArticleHomeDTO> listArticles() {
-        return articleDao.listArticles(PageUtils.getLimitCurrent(), PageUtils.getSize());
+        List<ArticleHomeDTO> articleHomeDTOList = articleDao.listArticles(PageUtils.getLimitCurrent(), PageUtils.getSize(), PageUtils.getCursor());
+        // 返回下一页游标
+        if (CollectionUtils.isNotEmpty(articleHomeDTOList)) {
+            ArticleHomeDTO lastArticle = articleHomeDTOList.get(articleHomeDTOList.size() - 1);
+            PageUtils.setNextCursor(lastArticle.getIsTop(), lastArticle.getId());
+        }
+        return articleHomeDTOList;
     }
 
     @Override
@@ -134,6 +155,30 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
 
     @Override
     public ArticleDTO getArticleById(Integer articleId) {
+        // 优先从缓存中获取文章，缓存版本在查询数据库前读取，加载期间文章变更时不会以新版本写入旧数据
+        String cacheVersion = articleCache.getVersion();
+        ArticleDTO article = articleCache.getArticle(articleId, cacheVersion);
+        if (Objects.isNull(article)) {
+            article = loadArticleById(articleId);
+            articleCache.putArticle(article, cacheVersion);
+        }
+        // 更新文章浏览量
+        updateArticleViewsCount(articleId);
+        // 封装点赞量和浏览量，浏览量包含尚未写入redis的部分
+        Double score = redisService.zScore(ARTICLE_VIEWS_COUNT, articleId);
+        long viewsCount = Objects.nonNull(score) ? score.longValue() : 0;
+        article.setViewsCount((int) (viewsCount + articleViewsCountBuffer.getPendingCount(articleId)));
+        article.setLikeCount((Integer) redisService.hGet(ARTICLE_LIKE_COUNT, articleId.toString()));
+        return article;
+    }
+
+    /**
+     * 从数据库加载文章详情
+     *
+     * @param articleId 文章id
+     * @return {@link ArticleDTO} 文章详情，不包含点赞量和浏览量
+     */
+    private ArticleDTO loadArticleById(Integer articleId) {
         // 查询推荐文章
         CompletableFuture<List<ArticleRecommendDTO>> recommendArticleList = CompletableFuture.supplyAsync(() -> articleDao.listRecommendArticles(articleId));
         // 查询最新文章
@@ -148,8 +193,6 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
         if (Objects.isNull(article)) {
             throw new BizException("文章不存在");
         }
-        // 更新文章浏览量
-        updateArticleViewsCount(articleId);
         // 查询上一篇下一篇文章
         Article lastArticle = articleDao.selectOne(new LambdaQueryWrapper<Article>()
                 .select(Article::getId, Article::getArticleTitle, Article::getArticleCover).eq(Article::getIsDelete, FALSE)
@@ -163,12 +206,6 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
                 .last("limit 1"));
         article.setLastArticle(BeanCopyUtils.copyObject(lastArticle, ArticlePaginationDTO.class));
         article.setNextArticle(BeanCopyUtils.copyObject(nextArticle, ArticlePaginationDTO.class));
-        // 封装点赞量和浏览量
-        Double score = redisService.zScore(ARTICLE_VIEWS_COUNT, articleId);
-        if (Objects.nonNull(score)) {
-            article.setViewsCount(score.intValue());
-        }
-        article.setLikeCount((Integer) redisService.hGet(ARTICLE_LIKE_COUNT, articleId.toString()));
         // 封装文章信息
         try {
             article.setRecommendArticleList(recommendArticleList.get());
@@ -222,6 +259,8 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
         this.saveOrUpdate(article);
         // 保存文章标签
         saveArticleTag(articleVO, article.getId());
+        // 清除文章缓存
+        applicationEventPublisher.publishEvent(new ArticleChangeEvent(Collections.singletonList(article.getId())));
     }
 
     /**
@@ -245,6 +284,8 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
         // 修改文章置顶状态
         Article article = Article.builder().id(articleTopVO.getId()).isTop(articleTopVO.getIsTop()).build();
         articleDao.updateById(article);
+        // 清除文章缓存
+        applicationEventPublisher.publishEvent(new ArticleChangeEvent(Collections.singletonList(articleTopVO.getId())));
     }
 
     @Override
@@ -257,6 +298,8 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
                         .build())
                 .collect(Collectors.toList());
         this.updateBatchById(articleList);
+        // 清除文章缓存
+        applicationEventPublisher.publishEvent(new ArticleChangeEvent(deleteVO.getIdList()));
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -266,6 +309,8 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
         articleTagDao.delete(new LambdaQueryWrapper<ArticleTag>().in(ArticleTag::getArticleId, articleIdList));
         // 删除文章
         articleDao.deleteBatchIds(articleIdList);
+        // 清除文章缓存
+        applicationEventPublisher.publishEvent(new ArticleChangeEvent(articleIdList));
     }
 
     @Override
@@ -324,8 +369,8 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleDao, Article> impleme
         if (!articleSet.contains(articleId)) {
             articleSet.add(articleId);
             session.setAttribute(ARTICLE_SET, articleSet);
-            // 浏览量+1
-            redisService.zIncr(ARTICLE_VIEWS_COUNT, articleId, 1D);
+            // 浏览量+1，由缓冲批量写入redis
+            articleViewsCountBuffer.increment(articleId);
         }
     }
 
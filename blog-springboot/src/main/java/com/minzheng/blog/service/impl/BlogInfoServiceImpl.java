@@ -2,17 +2,19 @@ package com.minzheng.blog.service.impl;
 
 import com.alibaba.fastjson.JSON;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.minzheng.blog.cache.DashboardStatsCache;
 import com.minzheng.blog.dao.*;
 import com.minzheng.blog.dto.*;
 import com.minzheng.blog.entity.Article;
 import com.minzheng.blog.entity.WebsiteConfig;
+import com.minzheng.blog.event.HomeInfoChangeEvent;
 import com.minzheng.blog.service.BlogInfoService;
 import com.minzheng.blog.service.PageService;
 import com.minzheng.blog.service.RedisService;
 import com.minzheng.blog.service.UniqueViewService;
-import com.minzheng.blog.util.BeanCopyUtils;
+import com.minzheng.blog.strategy.context.IpSourceStrategyContext;
+import com.minzheng.blog.strategy.context.UniqueVisitorStrategyContext;
 import com.minzheng.blog.util.IpUtils;
 import com.minzheng.blog.vo.BlogInfoVO;
 import com.minzheng.blog.vo.PageVO;
@@ -21,13 +23,13 @@ import eu.bitwalker.useragentutils.Browser;
 import eu.bitwalker.useragentutils.OperatingSystem;
 import eu.bitwalker.useragentutils.UserAgent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.util.DigestUtils;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static com.minzheng.blog.constant.CommonConst.*;
 import static com.minzheng.blog.constant.RedisPrefixConst.*;
@@ -42,8 +44,6 @@ import static com.minzheng.blog.enums.ArticleStatusEnum.PUBLIC;
  */
 @Service
 public class BlogInfoServiceImpl implements BlogInfoService {
-    @Autowired
-    private UserInfoDao userInfoDao;
     @Autowired
     private ArticleDao articleDao;
     @Autowired
@@ -51,8 +51,6 @@ public class BlogInfoServiceImpl implements BlogInfoService {
     @Autowired
     private TagDao tagDao;
     @Autowired
-    private MessageDao messageDao;
-    @Autowired
     private UniqueViewService uniqueViewService;
     @Autowired
     private RedisService redisService;
@@ -62,6 +60,14 @@ public class BlogInfoServiceImpl implements BlogInfoService {
     private HttpServletRequest request;
     @Autowired
     private PageService pageService;
+    @Autowired
+    private IpSourceStrategyContext ipSourceStrategyContext;
+    @Autowired
+    private UniqueVisitorStrategyContext uniqueVisitorStrategyContext;
+    @Autowired
+    private DashboardStatsCache dashboardStatsCache;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public BlogHomeInfoDTO getBlogHomeInfo() {
@@ -93,41 +99,11 @@ public class BlogInfoServiceImpl implements BlogInfoService {
 
     @Override
     public BlogBackInfoDTO getBlogBackInfo() {
+        // 查询缓存的后台统计
+        BlogBackInfoDTO blogBackInfoDTO = dashboardStatsCache.getBlogBackInfo();
         // 查询访问量
         Object count = redisService.get(BLOG_VIEWS_COUNT);
-        Integer viewsCount = Integer.parseInt(Optional.ofNullable(count).orElse(0).toString());
-        // 查询留言量
-        Integer messageCount = messageDao.selectCount(null);
-        // 查询用户量
-        Integer userCount = userInfoDao.selectCount(null);
-        // 查询文章量
-        Integer articleCount = articleDao.selectCount(new LambdaQueryWrapper<Article>()
-                .eq(Article::getIsDelete, FALSE));
-        // 查询一周用户量
-        List<UniqueViewDTO> uniqueViewList = uniqueViewService.listUniqueViews();
-        // 查询文章统计
-        List<ArticleStatisticsDTO> articleStatisticsList = articleDao.listArticleStatistics();
-        // 查询分类数据
-        List<CategoryDTO> categoryDTOList = categoryDao.listCategoryDTO();
-        // 查询标签数据
-        List<TagDTO> tagDTOList = BeanCopyUtils.copyList(tagDao.selectList(null), TagDTO.class);
-        // 查询redis访问量前五的文章
-        Map<Object, Double> articleMap = redisService.zReverseRangeWithScore(ARTICLE_VIEWS_COUNT, 0, 4);
-        BlogBackInfoDTO blogBackInfoDTO = BlogBackInfoDTO.builder()
-                .articleStatisticsList(articleStatisticsList)
-                .tagDTOList(tagDTOList)
-                .viewsCount(viewsCount)
-                .messageCount(messageCount)
-                .userCount(userCount)
-                .articleCount(articleCount)
-                .categoryDTOList(categoryDTOList)
-                .uniqueViewDTOList(uniqueViewList)
-                .build();
-        if (CollectionUtils.isNotEmpty(articleMap)) {
-            // 查询文章排行
-            List<ArticleRankDTO> articleRankDTOList = listArticleRank(articleMap);
-            blogBackInfoDTO.setArticleRankDTOList(articleRankDTOList);
-        }
+        blogBackInfoDTO.setViewsCount(Integer.parseInt(Optional.ofNullable(count).orElse(0).toString()));
         return blogBackInfoDTO;
     }
 
@@ -141,6 +117,7 @@ public class BlogInfoServiceImpl implements BlogInfoService {
         websiteConfigDao.updateById(websiteConfig);
         // 删除缓存
         redisService.del(WEBSITE_CONFIG);
+        applicationEventPublisher.publishEvent(new HomeInfoChangeEvent());
     }
 
     @Override
@@ -181,10 +158,12 @@ public class BlogInfoServiceImpl implements BlogInfoService {
         // 生成唯一用户标识
         String uuid = ipAddress + browser.getName() + operatingSystem.getName();
         String md5 = DigestUtils.md5DigestAsHex(uuid.getBytes());
-        // 判断是否访问
-        if (!redisService.sIsMember(UNIQUE_VISITOR, md5)) {
+        // 页面访问量+1
+        uniqueViewService.addPageView();
+        // 记录访客，当天首次访问时统计
+        if (uniqueVisitorStrategyContext.executeAddVisitor(md5)) {
             // 统计游客地域分布
-            String ipSource = IpUtils.getIpSource(ipAddress);
+            String ipSource = ipSourceStrategyContext.executeIpSourceStrategy(ipAddress);
             if (StringUtils.isNotBlank(ipSource)) {
                 ipSource = ipSource.substring(0, 2)
                         .replaceAll(PROVINCE, "")
@@ -195,31 +174,7 @@ public class BlogInfoServiceImpl implements BlogInfoService {
             }
             // 访问量+1
             redisService.incr(BLOG_VIEWS_COUNT, 1);
-            // 保存唯一标识
-            redisService.sAdd(UNIQUE_VISITOR, md5);
         }
     }
 
-    /**
-     * 查询文章排行
-     *
-     * @param articleMap 文章信息
-     * @return {@link List<ArticleRankDTO>} 文章排行
-     */
-    private List<ArticleRankDTO> listArticleRank(Map<Object, Double> articleMap) {
-        // 提取文章id
-        List<Integer> articleIdList = new ArrayList<>(articleMap.size());
-        articleMap.forEach((key, value) -> articleIdList.add((Integer) key));
-        // 查询文章信息
-        return articleDao.selectList(new LambdaQueryWrapper<Article>()
-                        .select(Article::getId, Article::getArticleTitle)
-                        .in(Article::getId, articleIdList))
-                .stream().map(article -> ArticleRankDTO.builder()
-                        .articleTitle(article.getArticleTitle())
-                        .viewsCount(articleMap.get(article.getId()).intValue())
-                        .build())
-                .sorted(Comparator.comparingInt(ArticleRankDTO::getViewsCount).reversed())
-                .collect(Collectors.toList());
-    }
-
 }
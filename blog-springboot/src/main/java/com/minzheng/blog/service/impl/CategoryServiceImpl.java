@@ -6,6 +6,7 @@ import com.minzheng.blog.dao.ArticleDao;
 import com.minzheng.blog.dto.CategoryBackDTO;
 import com.minzheng.blog.dto.CategoryDTO;
 import com.minzheng.blog.dto.CategoryOptionDTO;
+import com.minzheng.blog.event.DashboardChangeEvent;
 import com.minzheng.blog.util.BeanCopyUtils;
 import com.minzheng.blog.util.PageUtils;
 import com.minzheng.blog.vo.ConditionVO;
@@ -18,11 +19,13 @@ import com.minzheng.blog.service.CategoryService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.minzheng.blog.vo.CategoryVO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Objects;
 
+import static com.minzheng.blog.enums.DashboardStatEnum.CATEGORY;
 
 /**
  * 分类服务
@@ -36,6 +39,8 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryDao, Category> impl
     private CategoryDao categoryDao;
     @Autowired
     private ArticleDao articleDao;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public PageResult<CategoryDTO> listCategories() {
@@ -73,6 +78,8 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryDao, Category> impl
             throw new BizException("删除失败，该分类下存在文章");
         }
         categoryDao.deleteBatchIds(categoryIdList);
+        // 更新后台统计
+        applicationEventPublisher.publishEvent(new DashboardChangeEvent(CATEGORY, 0));
     }
 
     @Override
@@ -89,6 +96,8 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryDao, Category> impl
                 .categoryName(categoryVO.getCategoryName())
                 .build();
         this.saveOrUpdate(category);
+        // 更新后台统计
+        applicationEventPublisher.publishEvent(new DashboardChangeEvent(CATEGORY, 0));
     }
 
 }
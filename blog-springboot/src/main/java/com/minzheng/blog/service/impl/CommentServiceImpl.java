@@ -77,18 +77,23 @@ public class CommentServiceImpl extends ServiceImpl<CommentDao, Comment> impleme
             return new PageResult<>();
         }
         // 分页查询评论数据
-        List<CommentDTO> commentDTOList = commentDao.listComments(PageUtils.getLimitCurrent(), PageUtils.getSize(), commentVO);
+        List<CommentDTO> commentDTOList = commentDao.listComments(PageUtils.getLimitCurrent(), PageUtils.getSize(), commentVO, PageUtils.getCursor());
         if (CollectionUtils.isEmpty(commentDTOList)) {
             return new PageResult<>();
         }
-        // 查询redis的评论点赞数据
-        Map<String, Object> likeCountMap = redisService.hGetAll(COMMENT_LIKE_COUNT);
+        // 返回下一页游标
+        PageUtils.setNextCursor(null, commentDTOList.get(commentDTOList.size() - 1).getId());
         // 提取评论id集合
         List<Integer> commentIdList = commentDTOList.stream()
                 .map(CommentDTO::getId)
                 .collect(Collectors.toList());
         // 根据评论id集合查询回复数据
         List<ReplyDTO> replyDTOList = commentDao.listReplies(commentIdList);
+        // 查询redis中当前页评论及回复的点赞数据
+        List<String> likeIdList = new ArrayList<>();
+        commentIdList.forEach(id -> likeIdList.add(id.toString()));
+        replyDTOList.forEach(item -> likeIdList.add(item.getId().toString()));
+        Map<String, Object> likeCountMap = redisService.hMultiGet(COMMENT_LIKE_COUNT, likeIdList);
         // 封装回复点赞量
         replyDTOList.forEach(item -> item.setLikeCount((Integer) likeCountMap.get(item.getId().toString())));
         // 根据评论id分组回复数据
@@ -109,9 +114,16 @@ public class CommentServiceImpl extends ServiceImpl<CommentDao, Comment> impleme
     @Override
     public List<ReplyDTO> listRepliesByCommentId(Integer commentId) {
         // 转换页码查询评论下的回复
-        List<ReplyDTO> replyDTOList = commentDao.listRepliesByCommentId(PageUtils.getLimitCurrent(), PageUtils.getSize(), commentId);
-        // 查询redis的评论点赞数据
-        Map<String, Object> likeCountMap = redisService.hGetAll(COMMENT_LIKE_COUNT);
+        List<ReplyDTO> replyDTOList = commentDao.listRepliesByCommentId(PageUtils.getLimitCurrent(), PageUtils.getSize(), commentId, PageUtils.getCursor());
+        if (replyDTOList.isEmpty()) {
+            return replyDTOList;
+        }
+        // 返回下一页游标
+        PageUtils.setNextCursor(null, replyDTOList.get(replyDTOList.size() - 1).getId());
+        // 查询redis中当前页回复的点赞数据
+        Map<String, Object> likeCountMap = redisService.hMultiGet(COMMENT_LIKE_COUNT, replyDTOList.stream()
+                .map(item -> item.getId().toString())
+                .collect(Collectors.toList()));
         // 封装点赞数据
         replyDTOList.forEach(item -> item.setLikeCount((Integer) likeCountMap.get(item.getId().toString())));
         return replyDTOList;
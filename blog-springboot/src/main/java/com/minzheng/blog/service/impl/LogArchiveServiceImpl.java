@@ -0,0 +1,286 @@
+package com.minzheng.blog.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.minzheng.blog.dao.ChatRecordDao;
+import com.minzheng.blog.dao.OperationLogDao;
+import com.minzheng.blog.dto.OperationLogDTO;
+import com.minzheng.blog.entity.ChatRecord;
+import com.minzheng.blog.entity.OperationLog;
+import com.minzheng.blog.service.LogArchiveService;
+import com.minzheng.blog.util.BeanCopyUtils;
+import com.minzheng.blog.util.PageUtils;
+import com.minzheng.blog.vo.ConditionVO;
+import com.minzheng.blog.vo.PageResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.minzheng.blog.enums.ZoneEnum.SHANGHAI;
+
+/**
+ * 日志归档服务
+ * <p>
+ * 定时将超过保留期的记录按id顺序分块写入本地gzip文件（每行一条json），写入成功后在一个事务中分批删除。
+ * 文件名为 起始id_结束id_条数.jsonl.gz。每块总是从剩余最小的id开始，删除失败时整块保留，
+ * 下次归档同一起始id时先移除旧文件，即使这一块的条数有变化也不会产生重叠的归档。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+@Service
+public class LogArchiveServiceImpl implements LogArchiveService {
+
+    /**
+     * 操作日志归档目录
+     */
+    private static final String OPERATION_LOG = "operation_log";
+
+    /**
+     * 聊天记录归档目录
+     */
+    private static final String CHAT_RECORD = "chat_record";
+
+    /**
+     * 归档文件后缀
+     */
+    private static final String SUFFIX = ".jsonl.gz";
+
+    @Value("${archive.path}")
+    private String archivePath;
+
+    @Value("${archive.operation-log-retention-days:90}")
+    private int operationLogRetentionDays;
+
+    @Value("${archive.chat-record-retention-days:30}")
+    private int chatRecordRetentionDays;
+
+    /**
+     * 每个归档文件的记录数
+     */
+    @Value("${archive.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 每次删除的记录数
+     */
+    @Value("${archive.delete-batch-size:100}")
+    private int deleteBatchSize;
+
+    @Autowired
+    private OperationLogDao operationLogDao;
+
+    @Autowired
+    private ChatRecordDao chatRecordDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * ?}", zone = "Asia/Shanghai")
+    @Override
+    public void archive() {
+        archiveTable(OPERATION_LOG, operationLogDao, OperationLog::getId, OperationLog::getCreateTime, operationLogRetentionDays);
+        archiveTable(CHAT_RECORD, chatRecordDao, ChatRecord::getId, ChatRecord::getCreateTime, chatRecordRetentionDays);
+    }
+
+    @Override
+    public PageResult<OperationLogDTO> listArchivedOperationLogs(ConditionVO conditionVO) {
+        String keywords = conditionVO.getKeywords();
+        boolean filter = StringUtils.isNotBlank(keywords);
+        long offset = PageUtils.getLimitCurrent();
+        long end = offset + PageUtils.getSize();
+        List<OperationLog> operationLogList = new ArrayList<>();
+        // 按id倒序遍历归档文件，只解压与当前页有关的文件；有关键词时需要遍历全部文件统计总数
+        long count = 0;
+        for (ArchiveFile archiveFile : listArchiveFiles(OPERATION_LOG)) {
+            if (!filter && (count + archiveFile.count <= offset || count >= end)) {
+                count += archiveFile.count;
+                continue;
+            }
+            List<OperationLog> recordList = readArchiveFile(archiveFile.path, OperationLog.class);
+            Collections.reverse(recordList);
+            for (OperationLog operationLog : recordList) {
+                if (filter && !StrUtil.contains(operationLog.getOptModule(), keywords)
+                        && !StrUtil.contains(operationLog.getOptDesc(), keywords)) {
+                    continue;
+                }
+                if (count >= offset && count < end) {
+                    operationLogList.add(operationLog);
+                }
+                count++;
+            }
+        }
+        List<OperationLogDTO> operationLogDTOList = BeanCopyUtils.copyList(operationLogList, OperationLogDTO.class);
+        return new PageResult<>(operationLogDTOList, (int) count);
+    }
+
+    /**
+     * 分块归档并删除超过保留期的记录
+     *
+     * @param tableName        归档目录
+     * @param mapper           数据表对应的mapper
+     * @param idColumn         主键
+     * @param createTimeColumn 创建时间
+     * @param retentionDays    保留天数
+     * @param <T>              记录类型
+     */
+    private <T> void archiveTable(String tableName, BaseMapper<T> mapper, SFunction<T, Integer> idColumn,
+                                  SFunction<T, LocalDateTime> createTimeColumn, int retentionDays) {
+        LocalDateTime deadline = LocalDateTime.now(ZoneId.of(SHANGHAI.getZone())).minusDays(retentionDays);
+        int archivedCount = 0;
+        while (true) {
+            // id与创建时间同序，按主键顺序取最早的一块
+            List<T> recordList = mapper.selectList(new LambdaQueryWrapper<T>()
+                    .lt(createTimeColumn, deadline)
+                    .orderByAsc(idColumn)
+                    .last("limit " + chunkSize));
+            if (recordList.isEmpty()) {
+                break;
+            }
+            List<Integer> idList = recordList.stream().map(idColumn).collect(Collectors.toList());
+            try {
+                writeArchiveFile(tableName, recordList, idList);
+            } catch (IOException e) {
+                // 写入失败时不删除，下次重新归档
+                log.error("{}归档失败: {}", tableName, e.getMessage());
+                break;
+            }
+            try {
+                // 整块在一个事务中删除，中途失败时整块保留，下次重新归档并覆盖本次的文件
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (List<Integer> deleteIdList : CollUtil.split(idList, deleteBatchSize)) {
+                        mapper.deleteBatchIds(deleteIdList);
+                    }
+                });
+            } catch (Exception e) {
+                log.error("{}归档后删除失败: {}", tableName, e.getMessage());
+                break;
+            }
+            archivedCount += recordList.size();
+            if (recordList.size() < chunkSize) {
+                break;
+            }
+        }
+        if (archivedCount > 0) {
+            log.info("{}归档{}条记录", tableName, archivedCount);
+        }
+    }
+
+    /**
+     * 写入归档文件，先写临时文件再改名，避免留下不完整的归档
+     *
+     * @param tableName  归档目录
+     * @param recordList 记录列表
+     * @param idList     记录id列表
+     */
+    private <T> void writeArchiveFile(String tableName, List<T> recordList, List<Integer> idList) throws IOException {
+        Path directory = Paths.get(archivePath, tableName);
+        Files.createDirectories(directory);
+        String fileName = idList.get(0) + "_" + idList.get(idList.size() - 1) + "_" + idList.size() + SUFFIX;
+        Path tempFile = directory.resolve(fileName + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(tempFile)), StandardCharsets.UTF_8))) {
+            for (T record : recordList) {
+                writer.write(JSON.toJSONString(record));
+                writer.write('\n');
+            }
+        }
+        Files.move(tempFile, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // 同一起始id的旧文件来自删除失败的上次归档，记录已包含在本次文件中
+        String prefix = idList.get(0) + "_";
+        try (Stream<Path> pathStream = Files.list(directory)) {
+            for (Path path : pathStream.collect(Collectors.toList())) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(SUFFIX) && !name.equals(fileName)) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取归档文件
+     *
+     * @param path  文件路径
+     * @param clazz 记录类型
+     * @return 按id正序的记录列表
+     */
+    private <T> List<T> readArchiveFile(Path path, Class<T> clazz) {
+        List<T> recordList = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                recordList.add(JSON.parseObject(line, clazz));
+            }
+        } catch (IOException e) {
+            log.error("读取归档文件{}失败: {}", path, e.getMessage());
+        }
+        return recordList;
+    }
+
+    /**
+     * 查询归档文件
+     *
+     * @param tableName 归档目录
+     * @return 按id倒序的归档文件列表
+     */
+    private List<ArchiveFile> listArchiveFiles(String tableName) {
+        Path directory = Paths.get(archivePath, tableName);
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> pathStream = Files.list(directory)) {
+            return pathStream
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .map(ArchiveFile::new)
+                    .sorted(Comparator.comparingInt((ArchiveFile file) -> file.startId).reversed())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.error("查询归档文件失败: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 归档文件，起始id和条数从文件名解析
+     */
+    private static class ArchiveFile {
+
+        private final Path path;
+
+        private final int startId;
+
+        private final int count;
+
+        ArchiveFile(Path path) {
+            String fileName = path.getFileName().toString();
+            String[] parts = fileName.substring(0, fileName.length() - SUFFIX.length()).split("_");
+            this.path = path;
+            this.startId = Integer.parseInt(parts[0]);
+            this.count = Integer.parseInt(parts[2]);
+        }
+
+    }
+
+}
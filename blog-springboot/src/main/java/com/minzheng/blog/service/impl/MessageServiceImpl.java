@@ -14,12 +14,15 @@ import com.minzheng.blog.vo.MessageVO;
 import com.minzheng.blog.dto.MessageDTO;
 import com.minzheng.blog.entity.Message;
 import com.minzheng.blog.dao.MessageDao;
+import com.minzheng.blog.event.DashboardChangeEvent;
 import com.minzheng.blog.service.MessageService;
+import com.minzheng.blog.strategy.context.IpSourceStrategyContext;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.minzheng.blog.util.BeanCopyUtils;
 import com.minzheng.blog.util.IpUtils;
 import com.minzheng.blog.vo.ReviewVO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +34,7 @@ import java.util.stream.Collectors;
 
 import static com.minzheng.blog.constant.CommonConst.FALSE;
 import static com.minzheng.blog.constant.CommonConst.TRUE;
+import static com.minzheng.blog.enums.DashboardStatEnum.MESSAGE;
 
 /**
  * 留言服务
@@ -46,6 +50,10 @@ public class MessageServiceImpl extends ServiceImpl<MessageDao, Message> impleme
     private HttpServletRequest request;
     @Autowired
     private BlogInfoService blogInfoService;
+    @Autowired
+    private IpSourceStrategyContext ipSourceStrategyContext;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public void saveMessage(MessageVO messageVO) {
@@ -53,13 +61,15 @@ public class MessageServiceImpl extends ServiceImpl<MessageDao, Message> impleme
         Integer isReview = blogInfoService.getWebsiteConfig().getIsMessageReview();
         // 获取用户ip
         String ipAddress = IpUtils.getIpAddress(request);
-        String ipSource = IpUtils.getIpSource(ipAddress);
+        String ipSource = ipSourceStrategyContext.executeIpSourceStrategy(ipAddress);
         Message message = BeanCopyUtils.copyObject(messageVO, Message.class);
         message.setMessageContent(HTMLUtils.filter(message.getMessageContent()));
         message.setIpAddress(ipAddress);
         message.setIsReview(isReview == TRUE ? FALSE : TRUE);
         message.setIpSource(ipSource);
         messageDao.insert(message);
+        // 更新后台统计
+        applicationEventPublisher.publishEvent(new DashboardChangeEvent(MESSAGE, 1));
     }
 
     @Override
@@ -83,6 +93,13 @@ public class MessageServiceImpl extends ServiceImpl<MessageDao, Message> impleme
         this.updateBatchById(messageList);
     }
 
+    @Override
+    public void deleteMessages(List<Integer> messageIdList) {
+        int count = messageDao.deleteBatchIds(messageIdList);
+        // 更新后台统计
+        applicationEventPublisher.publishEvent(new DashboardChangeEvent(MESSAGE, -count));
+    }
+
     @Override
     public PageResult<MessageBackDTO> listMessageBackDTO(ConditionVO condition) {
         // 分页查询留言列表
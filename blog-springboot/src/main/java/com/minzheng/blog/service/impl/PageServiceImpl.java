@@ -4,11 +4,13 @@ import com.alibaba.fastjson.JSON;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.minzheng.blog.dao.PageDao;
 import com.minzheng.blog.entity.Page;
+import com.minzheng.blog.event.HomeInfoChangeEvent;
 import com.minzheng.blog.service.PageService;
 import com.minzheng.blog.service.RedisService;
 import com.minzheng.blog.util.BeanCopyUtils;
 import com.minzheng.blog.vo.PageVO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +32,8 @@ public class PageServiceImpl extends ServiceImpl<PageDao, Page> implements PageS
     private RedisService redisService;
     @Autowired
     private PageDao pageDao;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Transactional(rollbackFor = Exception.class)
     @Override
@@ -38,6 +42,7 @@ public class PageServiceImpl extends ServiceImpl<PageDao, Page> implements PageS
         this.saveOrUpdate(page);
         // 删除缓存
         redisService.del(PAGE_COVER);
+        applicationEventPublisher.publishEvent(new HomeInfoChangeEvent());
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -46,6 +51,7 @@ public class PageServiceImpl extends ServiceImpl<PageDao, Page> implements PageS
         pageDao.deleteById(pageId);
         // 删除缓存
         redisService.del(PAGE_COVER);
+        applicationEventPublisher.publishEvent(new HomeInfoChangeEvent());
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -8,12 +8,19 @@ import org.springframework.data.geo.GeoResults;
 import org.springframework.data.geo.Point;
 import org.springframework.data.redis.connection.BitFieldSubCommands;
 import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.DefaultTypedTuple;
 import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -114,6 +121,22 @@ public class RedisServiceImpl implements RedisService {
         return redisTemplate.opsForHash().entries(key);
     }
 
+    @Override
+    public Map<String, Object> hMultiGet(String key, Collection<String> hashKeys) {
+        Map<String, Object> result = new HashMap<>(hashKeys.size());
+        if (hashKeys.isEmpty()) {
+            return result;
+        }
+        List<Object> hashKeyList = new ArrayList<>(hashKeys);
+        List<Object> valueList = redisTemplate.opsForHash().multiGet(key, hashKeyList);
+        for (int i = 0; i < hashKeyList.size(); i++) {
+            if (Objects.nonNull(valueList.get(i))) {
+                result.put(hashKeyList.get(i).toString(), valueList.get(i));
+            }
+        }
+        return result;
+    }
+
     @Override
     public Boolean hSetAll(String key, Map<String, Object> map, long time) {
         redisTemplate.opsForHash().putAll(key, map);
@@ -150,6 +173,19 @@ public class RedisServiceImpl implements RedisService {
         return redisTemplate.opsForZSet().incrementScore(key, value, score);
     }
 
+    @Override
+    public void zIncrAll(String key, Map<Object, Double> scoreMap) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                scoreMap.forEach((value, score) -> redisOperations.opsForZSet().incrementScore(key, value, score));
+                return null;
+            }
+        });
+    }
+
     @Override
     public Double zDecr(String key, Object value, Double score) {
         return redisTemplate.opsForZSet().incrementScore(key, value, -score);
@@ -167,6 +203,68 @@ public class RedisServiceImpl implements RedisService {
         return redisTemplate.opsForZSet().score(key, value);
     }
 
+    @Override
+    public Map<Object, Double> zMultiScore(String key, Collection<?> values) {
+        Map<Object, Double> result = new HashMap<>(values.size());
+        if (values.isEmpty()) {
+            return result;
+        }
+        List<Object> valueList = new ArrayList<>(values);
+        List<Object> scoreList = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                valueList.forEach(value -> redisOperations.opsForZSet().score(key, value));
+                return null;
+            }
+        });
+        for (int i = 0; i < valueList.size(); i++) {
+            if (Objects.nonNull(scoreList.get(i))) {
+                result.put(valueList.get(i), (Double) scoreList.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, List<Double>> zSlidingWindow(Map<String, Map<Object, Double>> memberMap, Map<String, Long> windowMap, long now) {
+        List<String> keyList = new ArrayList<>(windowMap.keySet());
+        List<Object> resultList = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                for (String key : keyList) {
+                    long window = windowMap.get(key);
+                    // 每个key固定4条命令，结果按顺序对应
+                    Map<Object, Double> members = memberMap.getOrDefault(key, Collections.emptyMap());
+                    Set<ZSetOperations.TypedTuple<Object>> tuples = members.entrySet().stream()
+                            .<ZSetOperations.TypedTuple<Object>>map(entry -> new DefaultTypedTuple<>(entry.getKey(), entry.getValue()))
+                            .collect(Collectors.toSet());
+                    if (tuples.isEmpty()) {
+                        redisOperations.opsForZSet().zCard(key);
+                    } else {
+                        redisOperations.opsForZSet().add(key, tuples);
+                    }
+                    redisOperations.opsForZSet().removeRangeByScore(key, 0, now - window);
+                    redisOperations.expire(key, window, TimeUnit.MILLISECONDS);
+                    redisOperations.opsForZSet().rangeWithScores(key, 0, -1);
+                }
+                return null;
+            }
+        });
+        Map<String, List<Double>> scoreMap = new HashMap<>(keyList.size());
+        for (int i = 0; i < keyList.size(); i++) {
+            Set<ZSetOperations.TypedTuple<Object>> tuples = (Set<ZSetOperations.TypedTuple<Object>>) resultList.get(i * 4 + 3);
+            scoreMap.put(keyList.get(i), tuples.stream()
+                    .map(ZSetOperations.TypedTuple::getScore)
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+        return scoreMap;
+    }
+
     @Override
     public Map<Object, Double> zAllScore(String key) {
         return Objects.requireNonNull(redisTemplate.opsForZSet().rangeWithScores(key, 0, -1))
@@ -179,6 +277,22 @@ public class RedisServiceImpl implements RedisService {
         return redisTemplate.opsForSet().members(key);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Set<Object>> sMembersAll(List<String> keys) {
+        List<Object> memberList = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                keys.forEach(key -> redisOperations.opsForSet().members(key));
+                return null;
+            }
+        });
+        return memberList.stream()
+                .map(members -> (Set<Object>) members)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Long sAdd(String key, Object... values) {
         return redisTemplate.opsForSet().add(key, values);
@@ -191,6 +305,26 @@ public class RedisServiceImpl implements RedisService {
         return count;
     }
 
+    @Override
+    public List<Long> sAddAll(List<String> keys, Object value, long time) {
+        List<Object> resultList = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                for (String key : keys) {
+                    redisOperations.opsForSet().add(key, value);
+                    redisOperations.expire(key, time, TimeUnit.SECONDS);
+                }
+                return null;
+            }
+        });
+        List<Long> addList = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            addList.add((Long) resultList.get(i * 2));
+        }
+        return addList;
+    }
+
     @Override
     public Boolean sIsMember(String key, Object value) {
         return redisTemplate.opsForSet().isMember(key, value);
@@ -260,6 +394,28 @@ public class RedisServiceImpl implements RedisService {
         return redisTemplate.opsForValue().getBit(key, offset);
     }
 
+    @Override
+    public boolean bitAddAll(String key, long[] offsets, long time) {
+        List<Object> resultList = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                for (long offset : offsets) {
+                    redisOperations.opsForValue().setBit(key, offset, true);
+                }
+                redisOperations.expire(key, time, TimeUnit.SECONDS);
+                return null;
+            }
+        });
+        for (int i = 0; i < offsets.length; i++) {
+            // SETBIT返回原来的值
+            if (Boolean.FALSE.equals(resultList.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Long bitCount(String key) {
         return redisTemplate.execute((RedisCallback<Long>) con -> con.bitCount(key.getBytes()));
@@ -282,6 +438,27 @@ public class RedisServiceImpl implements RedisService {
         return redisTemplate.opsForHyperLogLog().add(key, value);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> hyperAddAll(List<String> keys, Object value, long time) {
+        List<Object> resultList = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                for (String key : keys) {
+                    redisOperations.opsForHyperLogLog().add(key, value);
+                    redisOperations.expire(key, time, TimeUnit.SECONDS);
+                }
+                return null;
+            }
+        });
+        List<Long> addList = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            addList.add((Long) resultList.get(i * 2));
+        }
+        return addList;
+    }
+
     @Override
     public Long hyperGet(String... key) {
         return redisTemplate.opsForHyperLogLog().size(key);
@@ -11,12 +11,13 @@ import com.minzheng.blog.dto.LabelOptionDTO;
 import com.minzheng.blog.entity.Resource;
 import com.minzheng.blog.entity.RoleResource;
 import com.minzheng.blog.exception.BizException;
-import com.minzheng.blog.handler.FilterInvocationSecurityMetadataSourceImpl;
+import com.minzheng.blog.event.ResourceRoleChangeEvent;
 import com.minzheng.blog.service.ResourceService;
 import com.minzheng.blog.util.BeanCopyUtils;
 import com.minzheng.blog.vo.ConditionVO;
 import com.minzheng.blog.vo.ResourceVO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -37,7 +38,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceDao, Resource> impl
     @Autowired
     private RoleResourceDao roleResourceDao;
     @Autowired
-    private FilterInvocationSecurityMetadataSourceImpl filterInvocationSecurityMetadataSource;
+    private ApplicationEventPublisher applicationEventPublisher;
 
 
     @Override
@@ -46,7 +47,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceDao, Resource> impl
         Resource resource = BeanCopyUtils.copyObject(resourceVO, Resource.class);
         this.saveOrUpdate(resource);
         // 重新加载角色资源信息
-        filterInvocationSecurityMetadataSource.clearDataSource();
+        applicationEventPublisher.publishEvent(new ResourceRoleChangeEvent());
     }
 
     @Override
@@ -66,6 +67,8 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceDao, Resource> impl
                 .collect(Collectors.toList());
         resourceIdList.add(resourceId);
         resourceDao.deleteBatchIds(resourceIdList);
+        // 重新加载角色资源信息
+        applicationEventPublisher.publishEvent(new ResourceRoleChangeEvent());
     }
 
     @Override
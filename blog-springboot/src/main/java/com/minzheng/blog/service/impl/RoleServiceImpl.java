@@ -16,13 +16,14 @@ import com.minzheng.blog.entity.RoleMenu;
 import com.minzheng.blog.entity.RoleResource;
 import com.minzheng.blog.entity.UserRole;
 import com.minzheng.blog.exception.BizException;
-import com.minzheng.blog.handler.FilterInvocationSecurityMetadataSourceImpl;
+import com.minzheng.blog.event.ResourceRoleChangeEvent;
 import com.minzheng.blog.service.RoleMenuService;
 import com.minzheng.blog.service.RoleResourceService;
 import com.minzheng.blog.service.RoleService;
 import com.minzheng.blog.util.BeanCopyUtils;
 import com.minzheng.blog.vo.RoleVO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -47,7 +48,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleDao, Role> implements RoleS
     @Autowired
     private UserRoleDao userRoleDao;
     @Autowired
-    private FilterInvocationSecurityMetadataSourceImpl filterInvocationSecurityMetadataSource;
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public List<UserRoleDTO> listUserRoles() {
@@ -98,9 +99,9 @@ public class RoleServiceImpl extends ServiceImpl<RoleDao, Role> implements RoleS
                             .build())
                     .collect(Collectors.toList());
             roleResourceService.saveBatch(roleResourceList);
-            // 重新加载角色资源信息
-            filterInvocationSecurityMetadataSource.clearDataSource();
         }
+        // 重新加载角色资源信息，角色标签变更同样影响接口权限
+        applicationEventPublisher.publishEvent(new ResourceRoleChangeEvent());
         // 更新角色菜单关系
         if (Objects.nonNull(roleVO.getMenuIdList())) {
             if (Objects.nonNull(roleVO.getId())) {
@@ -125,6 +126,8 @@ public class RoleServiceImpl extends ServiceImpl<RoleDao, Role> implements RoleS
             throw new BizException("该角色下存在用户");
         }
         roleDao.deleteBatchIds(roleIdList);
+        // 重新加载角色资源信息
+        applicationEventPublisher.publishEvent(new ResourceRoleChangeEvent());
     }
 
 }
@@ -10,6 +10,7 @@ import com.minzheng.blog.vo.PageResult;
 import com.minzheng.blog.dto.TagDTO;
 import com.minzheng.blog.entity.ArticleTag;
 import com.minzheng.blog.entity.Tag;
+import com.minzheng.blog.event.DashboardChangeEvent;
 import com.minzheng.blog.dao.TagDao;
 import com.minzheng.blog.exception.BizException;
 import com.minzheng.blog.service.TagService;
@@ -17,12 +18,15 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.minzheng.blog.util.BeanCopyUtils;
 import com.minzheng.blog.vo.TagVO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Objects;
 
+import static com.minzheng.blog.enums.DashboardStatEnum.TAG;
+
 /**
  * 标签服务
  *
@@ -35,6 +39,8 @@ public class TagServiceImpl extends ServiceImpl<TagDao, Tag> implements TagServi
     private TagDao tagDao;
     @Autowired
     private ArticleTagDao articleTagDao;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public PageResult<TagDTO> listTags() {
@@ -78,6 +84,8 @@ public class TagServiceImpl extends ServiceImpl<TagDao, Tag> implements TagServi
             throw new BizException("删除失败，该标签下存在文章");
         }
         tagDao.deleteBatchIds(tagIdList);
+        // 更新后台统计
+        applicationEventPublisher.publishEvent(new DashboardChangeEvent(TAG, 0));
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -92,6 +100,8 @@ public class TagServiceImpl extends ServiceImpl<TagDao, Tag> implements TagServi
         }
         Tag tag = BeanCopyUtils.copyObject(tagVO, Tag.class);
         this.saveOrUpdate(tag);
+        // 更新后台统计
+        applicationEventPublisher.publishEvent(new DashboardChangeEvent(TAG, 0));
     }
 
 }
@@ -64,7 +64,13 @@ public class TalkServiceImpl extends ServiceImpl<TalkDao, Talk> implements TalkS
             return new PageResult<>();
         }
         // 分页查询说说
-        List<TalkDTO> talkDTOList = talkDao.listTalks(PageUtils.getLimitCurrent(), PageUtils.getSize());
+        List<TalkDTO> talkDTOList = talkDao.listTalks(PageUtils.getLimitCurrent(), PageUtils.getSize(), PageUtils.getCursor());
+        if (talkDTOList.isEmpty()) {
+            return new PageResult<>(talkDTOList, count);
+        }
+        // 返回下一页游标
+        TalkDTO lastTalk = talkDTOList.get(talkDTOList.size() - 1);
+        PageUtils.setNextCursor(lastTalk.getIsTop(), lastTalk.getId());
         // 查询说说评论量
         List<Integer> talkIdList = talkDTOList.stream()
                 .map(TalkDTO::getId)
@@ -72,8 +78,10 @@ public class TalkServiceImpl extends ServiceImpl<TalkDao, Talk> implements TalkS
         Map<Integer, Integer> commentCountMap = commentDao.listCommentCountByTopicIds(talkIdList)
                 .stream()
                 .collect(Collectors.toMap(CommentCountDTO::getId, CommentCountDTO::getCommentCount));
-        // 查询说说点赞量
-        Map<String, Object> likeCountMap = redisService.hGetAll(TALK_LIKE_COUNT);
+        // 查询当前页说说的点赞量
+        Map<String, Object> likeCountMap = redisService.hMultiGet(TALK_LIKE_COUNT, talkIdList.stream()
+                .map(Object::toString)
+                .collect(Collectors.toList()));
         talkDTOList.forEach(item -> {
             item.setLikeCount((Integer) likeCountMap.get(item.getId().toString()));
             item.setCommentCount(commentCountMap.get(item.getId()));
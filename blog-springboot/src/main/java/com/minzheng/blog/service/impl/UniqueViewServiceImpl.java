@@ -3,41 +3,76 @@ package com.minzheng.blog.service.impl;
 
 import cn.hutool.core.date.DateTime;
 import cn.hutool.core.date.DateUtil;
-import cn.hutool.core.date.LocalDateTimeUtil;
+import com.minzheng.blog.dao.VisitStatDao;
 import com.minzheng.blog.dto.UniqueViewDTO;
+import com.minzheng.blog.dto.VisitStatDTO;
 import com.minzheng.blog.entity.UniqueView;
 import com.minzheng.blog.dao.UniqueViewDao;
+import com.minzheng.blog.entity.VisitStat;
+import com.minzheng.blog.exception.BizException;
 import com.minzheng.blog.service.RedisService;
 import com.minzheng.blog.service.UniqueViewService;
+import com.minzheng.blog.strategy.context.UniqueVisitorStrategyContext;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.minzheng.blog.vo.ConditionVO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
-import static com.minzheng.blog.constant.RedisPrefixConst.UNIQUE_VISITOR;
+import static com.minzheng.blog.constant.RedisPrefixConst.PAGE_VIEW_HOUR;
 import static com.minzheng.blog.constant.RedisPrefixConst.VISITOR_AREA;
+import static com.minzheng.blog.enums.VisitStatTypeEnum.DAY;
 import static com.minzheng.blog.enums.ZoneEnum.SHANGHAI;
 
 
 /**
  * 访问量统计服务
+ * <p>
+ * redis中按天和按小时保留3天的访客数据，定时任务把最近几个小时和最近两天的统计写入数据库。
+ * 汇总可以重复执行，同一时段的记录只增不减，宕机或错过零点都不会丢失当天数据。
  *
  * @author yezhiqiu
  * @date 2021/08/06
  */
 @Service
 public class UniqueViewServiceImpl extends ServiceImpl<UniqueViewDao, UniqueView> implements UniqueViewService {
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    /**
+     * 页面访问量保留时间（秒）
+     */
+    private static final long PAGE_VIEW_EXPIRE_TIME = TimeUnit.DAYS.toSeconds(3);
+
+    /**
+     * 按小时查询的最大天数
+     */
+    private static final long MAX_HOUR_STAT_DAYS = 31;
+
+    /**
+     * 每次汇总的小时数，不能超过redis数据的保留时间
+     */
+    @Value("${visitor.rollup.hours:3}")
+    private int rollupHours;
+
     @Autowired
     private RedisService redisService;
     @Autowired
     private UniqueViewDao uniqueViewDao;
+    @Autowired
+    private VisitStatDao visitStatDao;
+    @Autowired
+    private UniqueVisitorStrategyContext uniqueVisitorStrategyContext;
 
     @Override
     public List<UniqueViewDTO> listUniqueViews() {
@@ -46,22 +81,65 @@ public class UniqueViewServiceImpl extends ServiceImpl<UniqueViewDao, UniqueView
         return uniqueViewDao.listUniqueViews(startTime, endTime);
     }
 
-    @Scheduled(cron = " 0 0 0 * * ?", zone = "Asia/Shanghai")
-    public void saveUniqueView() {
-        // 获取每天用户量
-        Long count = redisService.sSize(UNIQUE_VISITOR);
-        // 获取昨天日期插入数据
-        UniqueView uniqueView = UniqueView.builder()
-                .createTime(LocalDateTimeUtil.offset(LocalDateTime.now(ZoneId.of(SHANGHAI.getZone())), -1, ChronoUnit.DAYS))
-                .viewsCount(Optional.of(count.intValue()).orElse(0))
-                .build();
-        uniqueViewDao.insert(uniqueView);
+    @Override
+    public void addPageView() {
+        LocalDateTime hour = LocalDateTime.now(ZoneId.of(SHANGHAI.getZone())).truncatedTo(ChronoUnit.HOURS);
+        redisService.incrExpire(PAGE_VIEW_HOUR + hour.format(HOUR_FORMATTER), PAGE_VIEW_EXPIRE_TIME);
+    }
+
+    @Override
+    public List<VisitStatDTO> listVisitStats(ConditionVO conditionVO) {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of(SHANGHAI.getZone()));
+        if (DAY.getType().equals(conditionVO.getType())) {
+            // 默认查询最近30天
+            LocalDateTime startTime = Optional.ofNullable(conditionVO.getStartTime())
+                    .orElse(now.toLocalDate().minusDays(29).atStartOfDay());
+            LocalDateTime endTime = Optional.ofNullable(conditionVO.getEndTime()).orElse(now);
+            return visitStatDao.listDayVisitStats(startTime, endTime);
+        }
+        // 默认查询最近24小时
+        LocalDateTime endTime = Optional.ofNullable(conditionVO.getEndTime()).orElse(now);
+        LocalDateTime startTime = Optional.ofNullable(conditionVO.getStartTime())
+                .orElse(endTime.truncatedTo(ChronoUnit.HOURS).minusHours(23));
+        if (Duration.between(startTime, endTime).toDays() > MAX_HOUR_STAT_DAYS) {
+            throw new BizException("按小时查询不能超过" + MAX_HOUR_STAT_DAYS + "天");
+        }
+        return visitStatDao.listHourVisitStats(startTime, endTime);
+    }
+
+    /**
+     * 汇总最近几个小时和最近两天的访问统计
+     */
+    @Scheduled(cron = "${visitor.rollup.cron:0 */5 * * * ?}", zone = "Asia/Shanghai")
+    public void rollup() {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of(SHANGHAI.getZone()));
+        LocalDateTime currentHour = now.truncatedTo(ChronoUnit.HOURS);
+        List<VisitStat> visitStatList = new ArrayList<>(rollupHours);
+        for (int i = rollupHours - 1; i >= 0; i--) {
+            LocalDateTime hour = currentHour.minusHours(i);
+            Object pageView = redisService.get(PAGE_VIEW_HOUR + hour.format(HOUR_FORMATTER));
+            visitStatList.add(VisitStat.builder()
+                    .visitHour(hour)
+                    .uniqueView((int) uniqueVisitorStrategyContext.executeCountHourVisitors(hour))
+                    .pageView(Integer.parseInt(Optional.ofNullable(pageView).orElse(0).toString()))
+                    .createTime(now)
+                    .build());
+        }
+        visitStatDao.saveOrUpdateBatch(visitStatList, now);
+        // 昨天的数据在零点后再汇总一次
+        LocalDate today = currentHour.toLocalDate();
+        List<UniqueView> uniqueViewList = new ArrayList<>(2);
+        for (LocalDate date : Arrays.asList(today.minusDays(1), today)) {
+            uniqueViewList.add(UniqueView.builder()
+                    .viewsCount((int) uniqueVisitorStrategyContext.executeCountVisitors(date))
+                    .createTime(date.atStartOfDay())
+                    .build());
+        }
+        uniqueViewDao.saveOrUpdateBatch(uniqueViewList, now);
     }
 
     @Scheduled(cron = " 0 1 0 * * ?", zone = "Asia/Shanghai")
     public void clear() {
-        // 清空redis访客记录
-        redisService.del(UNIQUE_VISITOR);
         // 清空redis游客区域统计
         redisService.del(VISITOR_AREA);
     }
@@ -14,6 +14,7 @@ import com.minzheng.blog.entity.UserAuth;
 import com.minzheng.blog.dao.UserAuthDao;
 import com.minzheng.blog.entity.UserRole;
 import com.minzheng.blog.enums.LoginTypeEnum;
+import com.minzheng.blog.event.DashboardChangeEvent;
 import com.minzheng.blog.enums.RoleEnum;
 import com.minzheng.blog.exception.BizException;
 import com.minzheng.blog.service.BlogInfoService;
@@ -28,6 +29,7 @@ import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.stereotype.Service;
@@ -39,6 +41,7 @@ import java.util.stream.Collectors;
 import static com.minzheng.blog.constant.CommonConst.*;
 import static com.minzheng.blog.constant.MQPrefixConst.EMAIL_EXCHANGE;
 import static com.minzheng.blog.constant.RedisPrefixConst.*;
+import static com.minzheng.blog.enums.DashboardStatEnum.USER;
 import static com.minzheng.blog.enums.UserAreaTypeEnum.getUserAreaType;
 import static com.minzheng.blog.util.CommonUtils.checkEmail;
 import static com.minzheng.blog.util.CommonUtils.getRandomCode;
@@ -66,6 +69,8 @@ public class UserAuthServiceImpl extends ServiceImpl<UserAuthDao, UserAuth> impl
     private RabbitTemplate rabbitTemplate;
     @Autowired
     private SocialLoginStrategyContext socialLoginStrategyContext;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public void sendCode(String username) {
@@ -148,6 +153,8 @@ public class UserAuthServiceImpl extends ServiceImpl<UserAuthDao, UserAuth> impl
                 .loginType(LoginTypeEnum.EMAIL.getType())
                 .build();
         userAuthDao.insert(userAuth);
+        // 更新后台统计
+        applicationEventPublisher.publishEvent(new DashboardChangeEvent(USER, 1));
     }
 
     @Override
@@ -8,18 +8,24 @@ import com.minzheng.blog.entity.UserAuth;
 import com.minzheng.blog.entity.UserInfo;
 import com.minzheng.blog.exception.BizException;
 import com.minzheng.blog.service.RedisService;
+import com.minzheng.blog.strategy.context.IpSourceStrategyContext;
 import com.minzheng.blog.util.IpUtils;
 import eu.bitwalker.useragentutils.UserAgent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.minzheng.blog.constant.RedisPrefixConst.*;
 import static com.minzheng.blog.enums.ZoneEnum.SHANGHAI;
@@ -45,6 +51,37 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     private RedisService redisService;	// 1.4.查询账号的点赞信息
     @Resource
     private HttpServletRequest request;	// 1.5.获取到http请求
+    @Autowired
+    private IpSourceStrategyContext ipSourceStrategyContext;	// 1.6.解析ip来源
+
+    @Value("${login.executor.pool-size:8}")
+    private int poolSize;
+    @Value("${login.executor.queue-capacity:200}")
+    private int queueCapacity;
+
+    /**
+     * 登录查询线程池，队列满时由登录线程自己执行
+     */
+    private ThreadPoolExecutor loginExecutor;
+
+    @PostConstruct
+    private void initLoginExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        loginExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        loginExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    private void destroyLoginExecutor() {
+        loginExecutor.shutdown();
+    }
 
     // 2.完成账号认证，重写UserDetailsService方法，返回一个UserDetails对象
     @Override
@@ -76,23 +113,33 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * 返回一个 UserDetailDTO对象 也可以，因为 UserDetailDTO 是 UserDetails 的实现类
      */
     public UserDetailDTO convertUserDetail(UserAuth user, HttpServletRequest request) {
-        // 3.1.查询账号信息
-        UserInfo userInfo = userInfoDao.selectById(user.getUserInfoId());
-
-        // 3.2.查询账号角色
-        List<String> roleList = roleDao.listRolesByUserInfoId(userInfo.getId());
-
-        // 3.3.从redis中查询账号点赞信息
-        Set<Object> articleLikeSet = redisService.sMembers(ARTICLE_USER_LIKE + userInfo.getId());
-        Set<Object> commentLikeSet = redisService.sMembers(COMMENT_USER_LIKE + userInfo.getId());
-        Set<Object> talkLikeSet = redisService.sMembers(TALK_USER_LIKE + userInfo.getId());
+        // 3.1.点赞信息和ip来源不访问数据库，放入线程池与数据库查询并发执行
+        // 3.2.三个点赞集合通过一次管道查询
+        CompletableFuture<List<Set<Object>>> likeSetListFuture = CompletableFuture.supplyAsync(
+                () -> redisService.sMembersAll(Arrays.asList(
+                        ARTICLE_USER_LIKE + user.getUserInfoId(),
+                        COMMENT_USER_LIKE + user.getUserInfoId(),
+                        TALK_USER_LIKE + user.getUserInfoId())), loginExecutor);
+        // 3.3.请求相关信息在当前线程读取，ip来源解析可能访问远程接口，放入线程池
+        String ipAddress = IpUtils.getIpAddress(request);
+        CompletableFuture<String> ipSourceFuture = CompletableFuture.supplyAsync(
+                () -> ipSourceStrategyContext.executeIpSourceStrategy(ipAddress), loginExecutor);
 
         // 3.4.获取设备信息
-        String ipAddress = IpUtils.getIpAddress(request);
-        String ipSource = IpUtils.getIpSource(ipAddress);
         UserAgent userAgent = IpUtils.getUserAgent(request);
 
-        // 3.5.将用户基本信息、认证信息、权限角色，封装成一个UserDetails对象
+        // 3.5.账号信息和角色在当前线程查询，第三方首次登录时与刚插入的记录处于同一事务，其他连接读不到
+        UserInfo userInfo = userInfoDao.selectById(user.getUserInfoId());
+        List<String> roleList = roleDao.listRolesByUserInfoId(user.getUserInfoId());
+
+        // 3.6.等待异步查询完成
+        List<Set<Object>> likeSetList = join(likeSetListFuture);
+        String ipSource = join(ipSourceFuture);
+        Set<Object> articleLikeSet = likeSetList.get(0);
+        Set<Object> commentLikeSet = likeSetList.get(1);
+        Set<Object> talkLikeSet = likeSetList.get(2);
+
+        // 3.7.将用户基本信息、认证信息、权限角色，封装成一个UserDetails对象
         return UserDetailDTO.builder()
                 .id(user.getId())
                 .loginType(user.getLoginType())
@@ -101,6 +148,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .password(user.getPassword())
                 .email(userInfo.getEmail())
                 .roleList(roleList)
+                .roleSet(Collections.unmodifiableSet(new HashSet<>(roleList)))
                 .nickname(userInfo.getNickname())
                 .avatar(userInfo.getAvatar())
                 .intro(userInfo.getIntro())
@@ -116,6 +164,24 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .lastLoginTime(LocalDateTime.now(ZoneId.of(SHANGHAI.getZone())))
                 .build();
     }
+
+    /**
+     * 等待异步查询结果，查询抛出的异常原样抛出
+     *
+     * @param future 异步查询
+     * @param <T>    结果类型
+     * @return 查询结果
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
 }
 
 //@Service
@@ -1,31 +1,29 @@
 package com.minzheng.blog.service.impl;
 
-import cn.hutool.core.date.DateUtil;
 import com.alibaba.fastjson.JSON;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.minzheng.blog.dao.ChatRecordDao;
+import com.minzheng.blog.cache.ChatHistoryBuffer;
+import com.minzheng.blog.cache.ChatRecordBuffer;
 import com.minzheng.blog.dto.ChatRecordDTO;
 import com.minzheng.blog.dto.RecallMessageDTO;
 import com.minzheng.blog.dto.WebsocketMessageDTO;
 import com.minzheng.blog.entity.ChatRecord;
 import com.minzheng.blog.enums.FilePathEnum;
+import com.minzheng.blog.handler.WebSocketBroadcaster;
+import com.minzheng.blog.handler.WebSocketClusterRelay;
+import com.minzheng.blog.handler.WebSocketSessionRegistry;
+import com.minzheng.blog.strategy.context.IpSourceStrategyContext;
 import com.minzheng.blog.strategy.context.UploadStrategyContext;
 import com.minzheng.blog.util.*;
 import com.minzheng.blog.vo.VoiceVO;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import javax.websocket.*;
 import javax.websocket.server.HandshakeRequest;
 import javax.websocket.server.ServerEndpoint;
 import javax.websocket.server.ServerEndpointConfig;
-import java.io.IOException;
-import java.util.Date;
-import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArraySet;
 
 import static com.minzheng.blog.enums.ChatTypeEnum.*;
 
@@ -45,19 +43,14 @@ public class WebSocketServiceImpl {
      */
     private Session session;
 
-    /**
-     * 用户session集合，使用线程安全的set，存放每个客户端对应的 WebSocketServiceImpl 对象
-     */
-    private static CopyOnWriteArraySet<WebSocketServiceImpl> webSocketSet = new CopyOnWriteArraySet<>();
-
     /**
      * 静态变量，在类初始化时就已经初始化，此时容器内可能还没有该对象，所以不能直接注入，应该使用set方法进行注入
-     * chatRecordDao 聊天记录服务
+     * chatRecordBuffer 聊天记录写缓冲
      */
-    private static ChatRecordDao chatRecordDao;
+    private static ChatRecordBuffer chatRecordBuffer;
     @Autowired
-    public void setChatRecordDao(ChatRecordDao chatRecordDao) {
-        WebSocketServiceImpl.chatRecordDao = chatRecordDao;
+    public void setChatRecordBuffer(ChatRecordBuffer chatRecordBuffer) {
+        WebSocketServiceImpl.chatRecordBuffer = chatRecordBuffer;
     }
 
     /**
@@ -70,6 +63,55 @@ public class WebSocketServiceImpl {
         WebSocketServiceImpl.uploadStrategyContext = uploadStrategyContext;
     }
 
+    /**
+     * 静态变量，在类初始化时就已经初始化，此时容器内可能还没有该对象，所以不能直接注入，应该使用set方法进行注入
+     * ipSourceStrategyContext ip解析策略上下文
+     */
+    private static IpSourceStrategyContext ipSourceStrategyContext;
+    @Autowired
+    public void setIpSourceStrategyContext(IpSourceStrategyContext ipSourceStrategyContext) {
+        WebSocketServiceImpl.ipSourceStrategyContext = ipSourceStrategyContext;
+    }
+
+    /**
+     * 静态变量，在类初始化时就已经初始化，此时容器内可能还没有该对象，所以不能直接注入，应该使用set方法进行注入
+     * webSocketBroadcaster 消息发送器
+     */
+    private static WebSocketBroadcaster webSocketBroadcaster;
+    @Autowired
+    public void setWebSocketBroadcaster(WebSocketBroadcaster webSocketBroadcaster) {
+        WebSocketServiceImpl.webSocketBroadcaster = webSocketBroadcaster;
+    }
+
+    /**
+     * 静态变量，在类初始化时就已经初始化，此时容器内可能还没有该对象，所以不能直接注入，应该使用set方法进行注入
+     * webSocketSessionRegistry 连接注册表
+     */
+    private static WebSocketSessionRegistry webSocketSessionRegistry;
+    @Autowired
+    public void setWebSocketSessionRegistry(WebSocketSessionRegistry webSocketSessionRegistry) {
+        WebSocketServiceImpl.webSocketSessionRegistry = webSocketSessionRegistry;
+    }
+
+    /**
+     * 静态变量，在类初始化时就已经初始化，此时容器内可能还没有该对象，所以不能直接注入，应该使用set方法进行注入
+     * webSocketClusterRelay 集群转发
+     */
+    private static WebSocketClusterRelay webSocketClusterRelay;
+    @Autowired
+    public void setWebSocketClusterRelay(WebSocketClusterRelay webSocketClusterRelay) {
+        WebSocketServiceImpl.webSocketClusterRelay = webSocketClusterRelay;
+    }
+
+    /**
+     * 静态变量，在类初始化时就已经初始化，此时容器内可能还没有该对象，所以不能直接注入，应该使用set方法进行注入
+     * chatHistoryBuffer 最近聊天记录缓存
+     */
+    private static ChatHistoryBuffer chatHistoryBuffer;
+    @Autowired
+    public void setChatHistoryBuffer(ChatHistoryBuffer chatHistoryBuffer) {
+        WebSocketServiceImpl.chatHistoryBuffer = chatHistoryBuffer;
+    }
 
 
     /**
@@ -94,22 +136,15 @@ public class WebSocketServiceImpl {
      * 连接建立成功调用的方法
      */
     @OnOpen
-    public void onOpen(Session session, EndpointConfig endpointConfig) throws IOException {
+    public void onOpen(Session session, EndpointConfig endpointConfig) {
         // 加入连接
         this.session = session;
-        webSocketSet.add(this);
-        // 更新在线人数
-        updateOnlineCount();
-        // 加载历史聊天记录
-        ChatRecordDTO chatRecordDTO = listChartRecords(endpointConfig);
-        // 发送消息
-        WebsocketMessageDTO messageDTO = WebsocketMessageDTO.builder()
-                .type(HISTORY_RECORD.getType())
-                .data(chatRecordDTO)
-                .build();
-        synchronized (session) {
-            session.getBasicRemote().sendText(JSON.toJSONString(messageDTO));
-        }
+        webSocketBroadcaster.register(session);
+        // 注册连接，合并后广播在线人数
+        webSocketSessionRegistry.add(session);
+        webSocketClusterRelay.onlineCountChanged();
+        // 发送历史聊天记录
+        webSocketBroadcaster.send(session, getHistoryMessage(endpointConfig));
     }
 
     /**
@@ -118,7 +153,7 @@ public class WebSocketServiceImpl {
      * @param message 客户端发送过来的消息
      */
     @OnMessage
-    public void onMessage(String message, Session session) throws IOException {
+    public void onMessage(String message, Session session) {
         WebsocketMessageDTO messageDTO = JSON.parseObject(message, WebsocketMessageDTO.class);
         switch (Objects.requireNonNull(getChatType(messageDTO.getType()))) {
             case SEND_MESSAGE:
@@ -126,7 +161,9 @@ public class WebSocketServiceImpl {
                 ChatRecord chatRecord = JSON.parseObject(JSON.toJSONString(messageDTO.getData()), ChatRecord.class);
                 // 过滤html标签 与 敏感词
                 chatRecord.setContent(HTMLUtils.filter(chatRecord.getContent()));
-                chatRecordDao.insert(chatRecord);
+                // 分配id后异步写入，不等待数据库
+                chatRecordBuffer.save(chatRecord);
+                chatHistoryBuffer.append(chatRecord);
                 messageDTO.setData(chatRecord);
                 // 广播消息
                 broadcastMessage(messageDTO);
@@ -135,15 +172,16 @@ public class WebSocketServiceImpl {
                 // TODO 验证身份，应该只能撤回自己的消息
                 // 撤回消息
                 RecallMessageDTO recallMessage = JSON.parseObject(JSON.toJSONString(messageDTO.getData()), RecallMessageDTO.class);
-                // 删除记录
-                chatRecordDao.deleteById(recallMessage.getId());
+                // 删除记录，未写入的记录直接从写缓冲中去掉
+                chatRecordBuffer.recall(recallMessage.getId());
+                chatHistoryBuffer.remove(recallMessage.getId());
                 // 广播消息
                 broadcastMessage(messageDTO);
                 break;
             case HEART_BEAT:
                 // 心跳消息
                 messageDTO.setData("pong");
-                session.getBasicRemote().sendText(JSON.toJSONString(JSON.toJSONString(messageDTO)));
+                webSocketBroadcaster.send(session, JSON.toJSONString(JSON.toJSONString(messageDTO)));
             default:
                 break;
         }
@@ -153,45 +191,29 @@ public class WebSocketServiceImpl {
      * 连接关闭调用的方法
      */
     @OnClose
-    public void onClose() throws IOException {
-        // 更新在线人数
-        webSocketSet.remove(this);
-        updateOnlineCount();
+    public void onClose() {
+        // 移除连接，合并后广播在线人数
+        if (webSocketSessionRegistry.remove(session)) {
+            webSocketClusterRelay.onlineCountChanged();
+        }
+        webSocketBroadcaster.unregister(session);
     }
 
     /**
-     * 加载历史聊天记录
+     * 生成历史聊天记录消息，结构与{@link ChatRecordDTO}一致
      *
      * @param endpointConfig 配置
-     * @return 加载历史聊天记录
+     * @return 序列化后的消息
      */
-    private ChatRecordDTO listChartRecords(EndpointConfig endpointConfig) {
-        // 获取聊天历史记录（12h以内的）
-        List<ChatRecord> chatRecordList = chatRecordDao.selectList(new LambdaQueryWrapper<ChatRecord>()
-                .ge(ChatRecord::getCreateTime, DateUtil.offsetHour(new Date(), -12)));
+    private String getHistoryMessage(EndpointConfig endpointConfig) {
         // 获取当前用户ip
         String ipAddress = endpointConfig.getUserProperties().get(ChatConfigurator.HEADER_NAME).toString();
-        return ChatRecordDTO.builder()
-                .chatRecordList(chatRecordList)
-                .ipAddress(ipAddress)
-                .ipSource(IpUtils.getIpSource(ipAddress))
-                .build();
-    }
-
-    /**
-     * 更新在线人数
-     *
-     * @throws IOException io异常
-     */
-    @Async
-    public void updateOnlineCount() throws IOException {
-        // 获取当前在线人数
-        WebsocketMessageDTO messageDTO = WebsocketMessageDTO.builder()
-                .type(ONLINE_COUNT.getType())
-                .data(webSocketSet.size())
-                .build();
-        // 广播消息
-        broadcastMessage(messageDTO);
+        String ipSource = ipSourceStrategyContext.executeIpSourceStrategy(ipAddress);
+        // 聊天记录（12h以内的）已缓存为json，只拼接当前用户的ip信息
+        return "{\"type\":" + HISTORY_RECORD.getType()
+                + ",\"data\":{\"chatRecordList\":" + chatHistoryBuffer.getRecordListJson()
+                + ",\"ipAddress\":" + JSON.toJSONString(ipAddress)
+                + ",\"ipSource\":" + JSON.toJSONString(ipSource) + "}}";
     }
 
     /**
@@ -205,32 +227,24 @@ public class WebSocketServiceImpl {
         voiceVO.setContent(content);
         // 保存记录
         ChatRecord chatRecord = BeanCopyUtils.copyObject(voiceVO, ChatRecord.class);
-        chatRecordDao.insert(chatRecord);
+        chatRecordBuffer.save(chatRecord);
+        chatHistoryBuffer.append(chatRecord);
         // 发送消息
         WebsocketMessageDTO messageDTO = WebsocketMessageDTO.builder()
                 .type(VOICE_MESSAGE.getType())
                 .data(chatRecord)
                 .build();
         // 广播消息
-        try {
-            broadcastMessage(messageDTO);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        broadcastMessage(messageDTO);
     }
 
     /**
-     * 广播消息
+     * 广播消息，只序列化一次，异步发送给所有节点的连接
      *
      * @param messageDTO 消息dto
-     * @throws IOException io异常
      */
-    private void broadcastMessage(WebsocketMessageDTO messageDTO) throws IOException {
-        for (WebSocketServiceImpl webSocketService : webSocketSet) {
-            synchronized (webSocketService.session) {
-                webSocketService.session.getBasicRemote().sendText(JSON.toJSONString(messageDTO));
-            }
-        }
+    private void broadcastMessage(WebsocketMessageDTO messageDTO) {
+        webSocketClusterRelay.broadcast(messageDTO);
     }
 
 }
@@ -0,0 +1,19 @@
+package com.minzheng.blog.strategy;
+
+/**
+ * ip解析策略
+ *
+ * @author yezhiqiu
+ * @date 2021/07/28
+ */
+public interface IpSourceStrategy {
+
+    /**
+     * 解析ip地址
+     *
+     * @param ipAddress ip地址
+     * @return {@link String} ip来源，解析失败返回空串
+     */
+    String getIpSource(String ipAddress);
+
+}
@@ -0,0 +1,38 @@
+package com.minzheng.blog.strategy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 访客统计策略
+ *
+ * @author yezhiqiu
+ * @date 2021/08/06
+ */
+public interface UniqueVisitorStrategy {
+
+    /**
+     * 记录访客
+     *
+     * @param visitorId 访客唯一标识
+     * @return 是否为当天新访客
+     */
+    boolean addVisitor(String visitorId);
+
+    /**
+     * 统计某天的访客数
+     *
+     * @param date 日期
+     * @return 访客数
+     */
+    long countVisitors(LocalDate date);
+
+    /**
+     * 统计某小时的访客数
+     *
+     * @param hour 整点时间
+     * @return 访客数
+     */
+    long countHourVisitors(LocalDateTime hour);
+
+}
@@ -0,0 +1,145 @@
+package com.minzheng.blog.strategy.context;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.minzheng.blog.strategy.IpSourceStrategy;
+import com.minzheng.blog.strategy.impl.LocalIpSourceStrategyImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.minzheng.blog.enums.IpSourceModeEnum.REMOTE;
+import static com.minzheng.blog.enums.IpSourceModeEnum.getStrategy;
+
+/**
+ * ip解析策略上下文
+ *
+ * @author yezhiqiu
+ * @date 2021/07/28
+ */
+@Slf4j
+@Service
+public class IpSourceStrategyContext {
+    /**
+     * 解析模式
+     */
+    @Value("${ip.mode}")
+    private String ipMode;
+
+    /**
+     * 缓存容量
+     */
+    @Value("${ip.cache.capacity:10000}")
+    private int cacheCapacity;
+
+    /**
+     * 缓存过期时间（秒）
+     */
+    @Value("${ip.cache.timeout:86400}")
+    private long cacheTimeout;
+
+    /**
+     * 解析失败的缓存过期时间（秒）
+     */
+    @Value("${ip.cache.fail-timeout:300}")
+    private long failTimeout;
+
+    @Autowired
+    private Map<String, IpSourceStrategy> ipSourceStrategyMap;
+
+    /**
+     * 当前使用的解析策略
+     */
+    private IpSourceStrategy ipSourceStrategy;
+
+    /**
+     * ip来源缓存
+     */
+    private LRUCache<String, String> ipSourceCache;
+
+    /**
+     * 缓存命中次数
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * 缓存未命中次数
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * 初始化缓存，离线库不可用时使用远程接口，避免所有ip都解析不到来源
+     */
+    @PostConstruct
+    private void initCache() {
+        ipSourceCache = CacheUtil.newLRUCache(cacheCapacity, TimeUnit.SECONDS.toMillis(cacheTimeout));
+        ipSourceStrategy = ipSourceStrategyMap.get(getStrategy(ipMode));
+        if (ipSourceStrategy instanceof LocalIpSourceStrategyImpl && !((LocalIpSourceStrategyImpl) ipSourceStrategy).isLoaded()) {
+            log.warn("ip离线库不可用，改用远程接口解析");
+            ipSourceStrategy = ipSourceStrategyMap.get(REMOTE.getStrategy());
+        }
+    }
+
+    /**
+     * 执行ip解析策略
+     *
+     * @param ipAddress ip地址
+     * @return {@link String} ip来源
+     */
+    public String executeIpSourceStrategy(String ipAddress) {
+        if (StringUtils.isBlank(ipAddress)) {
+            return "";
+        }
+        // 优先从缓存中获取，读取时不刷新过期时间，解析失败的缓存到期后一定会重新解析
+        String ipSource = ipSourceCache.get(ipAddress, false);
+        if (Objects.nonNull(ipSource)) {
+            hitCount.increment();
+            return ipSource;
+        }
+        missCount.increment();
+        ipSource = ipSourceStrategy.getIpSource(ipAddress);
+        if (StringUtils.isBlank(ipSource)) {
+            // 解析失败也缓存，避免短时间内重复解析
+            ipSourceCache.put(ipAddress, "", TimeUnit.SECONDS.toMillis(failTimeout));
+            return "";
+        }
+        ipSourceCache.put(ipAddress, ipSource);
+        return ipSource;
+    }
+
+    /**
+     * 获取缓存命中次数
+     *
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 获取缓存未命中次数
+     *
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 获取当前缓存数量
+     *
+     * @return 缓存数量
+     */
+    public int getCacheSize() {
+        return ipSourceCache.size();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.minzheng.blog.strategy.context;
+
+import com.minzheng.blog.strategy.UniqueVisitorStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static com.minzheng.blog.enums.UniqueVisitorModeEnum.getStrategy;
+
+/**
+ * 访客统计策略上下文
+ *
+ * @author yezhiqiu
+ * @date 2021/08/06
+ */
+@Service
+public class UniqueVisitorStrategyContext {
+    /**
+     * 统计模式
+     */
+    @Value("${visitor.mode:set}")
+    private String visitorMode;
+
+    @Autowired
+    private Map<String, UniqueVisitorStrategy> uniqueVisitorStrategyMap;
+
+    /**
+     * 记录访客
+     *
+     * @param visitorId 访客唯一标识
+     * @return 是否为当天新访客
+     */
+    public boolean executeAddVisitor(String visitorId) {
+        return uniqueVisitorStrategyMap.get(getStrategy(visitorMode)).addVisitor(visitorId);
+    }
+
+    /**
+     * 统计某天的访客数
+     *
+     * @param date 日期
+     * @return 访客数
+     */
+    public long executeCountVisitors(LocalDate date) {
+        return uniqueVisitorStrategyMap.get(getStrategy(visitorMode)).countVisitors(date);
+    }
+
+    /**
+     * 统计某小时的访客数
+     *
+     * @param hour 整点时间
+     * @return 访客数
+     */
+    public long executeCountHourVisitors(LocalDateTime hour) {
+        return uniqueVisitorStrategyMap.get(getStrategy(visitorMode)).countHourVisitors(hour);
+    }
+
+}
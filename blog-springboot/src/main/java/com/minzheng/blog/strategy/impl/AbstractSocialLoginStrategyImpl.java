@@ -13,12 +13,15 @@ import com.minzheng.blog.entity.UserAuth;
 import com.minzheng.blog.entity.UserInfo;
 import com.minzheng.blog.entity.UserRole;
 import com.minzheng.blog.enums.RoleEnum;
+import com.minzheng.blog.event.DashboardChangeEvent;
 import com.minzheng.blog.exception.BizException;
 import com.minzheng.blog.service.impl.UserDetailsServiceImpl;
 import com.minzheng.blog.strategy.SocialLoginStrategy;
+import com.minzheng.blog.strategy.context.IpSourceStrategyContext;
 import com.minzheng.blog.util.BeanCopyUtils;
 import com.minzheng.blog.util.IpUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -30,6 +33,7 @@ import java.time.ZoneId;
 import java.util.Objects;
 
 import static com.minzheng.blog.constant.CommonConst.TRUE;
+import static com.minzheng.blog.enums.DashboardStatEnum.USER;
 import static com.minzheng.blog.enums.ZoneEnum.SHANGHAI;
 
 
@@ -51,6 +55,10 @@ public abstract class AbstractSocialLoginStrategyImpl implements SocialLoginStra
     private UserDetailsServiceImpl userDetailsService;
     @Resource
     private HttpServletRequest request;
+    @Autowired
+    private IpSourceStrategyContext ipSourceStrategyContext;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public UserInfoDTO login(String data) {
@@ -60,7 +68,7 @@ public abstract class AbstractSocialLoginStrategyImpl implements SocialLoginStra
         SocialTokenDTO socialToken = getSocialToken(data);
         // 获取用户ip信息
         String ipAddress = IpUtils.getIpAddress(request);
-        String ipSource = IpUtils.getIpSource(ipAddress);
+        String ipSource = ipSourceStrategyContext.executeIpSourceStrategy(ipAddress);
         // 判断是否已注册
         UserAuth user = getUserAuth(socialToken);
         if (Objects.nonNull(user)) {
@@ -161,6 +169,8 @@ public abstract class AbstractSocialLoginStrategyImpl implements SocialLoginStra
                 .roleId(RoleEnum.USER.getRoleId())
                 .build();
         userRoleDao.insert(userRole);
+        // 更新后台统计
+        applicationEventPublisher.publishEvent(new DashboardChangeEvent(USER, 1));
         return userDetailsService.convertUserDetail(userAuth, request);
     }
 
@@ -0,0 +1,162 @@
+package com.minzheng.blog.strategy.impl;
+
+import com.minzheng.blog.cache.BloomFilter;
+import com.minzheng.blog.service.RedisService;
+import com.minzheng.blog.strategy.UniqueVisitorStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.minzheng.blog.constant.RedisPrefixConst.*;
+import static com.minzheng.blog.enums.ZoneEnum.SHANGHAI;
+
+/**
+ * HyperLogLog访客统计策略
+ * <p>
+ * 每天和每小时各一个HyperLogLog，只用于统计访客数，数据保留3天，由定时任务汇总入库。
+ * 是否为当天新访客由redis中每天一个固定大小的布隆过滤器位图判断，内存占用与访客数无关。
+ * 本地按小时维护布隆过滤器，同一小时内重复访问的访客不再访问redis。
+ * 两级布隆过滤器的误判会把少量新访客当作老访客，因此按新访客统计的地域分布和访问量是近似值，
+ * 偏小的比例约为两个过滤器的误判率之和。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/06
+ */
+@Service("hyperLogLogUniqueVisitorStrategyImpl")
+public class HyperLogLogUniqueVisitorStrategyImpl implements UniqueVisitorStrategy {
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    /**
+     * HyperLogLog保留时间（秒）
+     */
+    private static final long EXPIRE_TIME = TimeUnit.DAYS.toSeconds(3);
+
+    /**
+     * 每天布隆过滤器位图保留时间（秒），key中包含日期，保留一天即可
+     */
+    private static final long DAY_BLOOM_EXPIRE_TIME = TimeUnit.DAYS.toSeconds(1);
+
+    /**
+     * 每小时预计访客数
+     */
+    @Value("${visitor.bloom.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    /**
+     * 布隆过滤器误判率
+     */
+    @Value("${visitor.bloom.fpp:0.01}")
+    private double fpp;
+
+    /**
+     * 每天预计访客数，决定redis布隆过滤器位图的大小
+     */
+    @Value("${visitor.bloom.day-expected-insertions:1000000}")
+    private long dayExpectedInsertions;
+
+    /**
+     * 每天布隆过滤器误判率
+     */
+    @Value("${visitor.bloom.day-fpp:0.001}")
+    private double dayFpp;
+
+    /**
+     * 每天布隆过滤器位数
+     */
+    private long dayBitSize;
+
+    /**
+     * 每天布隆过滤器哈希函数个数
+     */
+    private int dayHashCount;
+
+    @Autowired
+    private RedisService redisService;
+
+    /**
+     * 当前小时的布隆过滤器
+     */
+    private volatile HourBloomFilter hourBloomFilter;
+
+    @PostConstruct
+    private void init() {
+        dayBitSize = BloomFilter.optimalBitSize(dayExpectedInsertions, dayFpp);
+        dayHashCount = BloomFilter.optimalHashCount(dayBitSize, dayExpectedInsertions);
+    }
+
+    @Override
+    public boolean addVisitor(String visitorId) {
+        LocalDateTime hour = LocalDateTime.now(ZoneId.of(SHANGHAI.getZone())).truncatedTo(ChronoUnit.HOURS);
+        if (!getBloomFilter(hour).put(visitorId)) {
+            // 本小时内已记录过（或误判）
+            return false;
+        }
+        String day = hour.format(DAY_FORMATTER);
+        redisService.hyperAddAll(Arrays.asList(UNIQUE_VISITOR_DAY + day,
+                UNIQUE_VISITOR_HOUR + hour.format(HOUR_FORMATTER)), visitorId, EXPIRE_TIME);
+        // 有位从0变为1说明当天一定没有访问过
+        return redisService.bitAddAll(UNIQUE_VISITOR_BLOOM_DAY + day,
+                BloomFilter.indexes(visitorId, dayBitSize, dayHashCount), DAY_BLOOM_EXPIRE_TIME);
+    }
+
+    @Override
+    public long countVisitors(LocalDate date) {
+        return Optional.ofNullable(redisService.hyperGet(UNIQUE_VISITOR_DAY + date.format(DAY_FORMATTER))).orElse(0L);
+    }
+
+    @Override
+    public long countHourVisitors(LocalDateTime hour) {
+        return Optional.ofNullable(redisService.hyperGet(UNIQUE_VISITOR_HOUR + hour.format(HOUR_FORMATTER))).orElse(0L);
+    }
+
+    /**
+     * 获取指定小时的布隆过滤器，进入新的小时后替换
+     *
+     * @param hour 小时
+     * @return 布隆过滤器
+     */
+    private BloomFilter getBloomFilter(LocalDateTime hour) {
+        HourBloomFilter current = hourBloomFilter;
+        if (current == null || !current.hour.equals(hour)) {
+            synchronized (this) {
+                current = hourBloomFilter;
+                if (current == null || !current.hour.equals(hour)) {
+                    current = new HourBloomFilter(hour, new BloomFilter(expectedInsertions, fpp));
+                    hourBloomFilter = current;
+                }
+            }
+        }
+        return current.bloomFilter;
+    }
+
+    /**
+     * 小时与对应的布隆过滤器
+     */
+    private static class HourBloomFilter {
+
+        private final LocalDateTime hour;
+
+        private final BloomFilter bloomFilter;
+
+        HourBloomFilter(LocalDateTime hour, BloomFilter bloomFilter) {
+            this.hour = hour;
+            this.bloomFilter = bloomFilter;
+        }
+
+    }
+
+}
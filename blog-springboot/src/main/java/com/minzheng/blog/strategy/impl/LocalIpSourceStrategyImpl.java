@@ -0,0 +1,175 @@
+package com.minzheng.blog.strategy.impl;
+
+import com.minzheng.blog.strategy.IpSourceStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 本地离线库ip解析策略
+ * <p>
+ * 离线库文件格式（大端序）：
+ * <pre>
+ * | 区段数量 n (4字节) | n 个区段索引 (起始ip 4字节, 结束ip 4字节, 地区偏移 4字节) | 地区数据 (长度 2字节 + utf8字节) |
+ * </pre>
+ * 区段按起始ip升序排列且互不重叠，地区偏移为地区数据在文件中的绝对位置。
+ * 启动时以只读方式映射到内存，查询时二分查找区段，不产生网络请求。
+ *
+ * @author yezhiqiu
+ * @date 2021/07/28
+ */
+@Slf4j
+@Service("localIpSourceStrategyImpl")
+public class LocalIpSourceStrategyImpl implements IpSourceStrategy {
+
+    /**
+     * 区段索引起始位置
+     */
+    private static final int INDEX_OFFSET = 4;
+
+    /**
+     * 单个区段索引长度
+     */
+    private static final int INDEX_LENGTH = 12;
+
+    /**
+     * 离线库路径
+     */
+    @Value("${ip.local.path}")
+    private String localPath;
+
+    /**
+     * 离线库内存映射
+     */
+    private volatile MappedByteBuffer buffer;
+
+    /**
+     * 区段数量
+     */
+    private volatile int count;
+
+    /**
+     * 加载离线库
+     */
+    @PostConstruct
+    private void loadDatabase() {
+        Path path = Paths.get(localPath);
+        if (!Files.exists(path)) {
+            log.warn("ip离线库不存在: " + localPath);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int total = mappedBuffer.getInt(0);
+            if (total < 0 || INDEX_OFFSET + (long) total * INDEX_LENGTH > channel.size()) {
+                log.warn("ip离线库格式错误: " + localPath);
+                return;
+            }
+            count = total;
+            buffer = mappedBuffer;
+            log.info("ip离线库加载完成，区段数量: " + total);
+        } catch (IOException e) {
+            log.error("ip离线库加载失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 离线库是否加载成功
+     *
+     * @return 是否可用
+     */
+    public boolean isLoaded() {
+        return buffer != null;
+    }
+
+    @Override
+    public String getIpSource(String ipAddress) {
+        MappedByteBuffer mappedBuffer = buffer;
+        long ip = parseIpv4(ipAddress);
+        if (mappedBuffer == null || ip < 0) {
+            return "";
+        }
+        // 二分查找ip所在区段
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = INDEX_OFFSET + mid * INDEX_LENGTH;
+            long startIp = Integer.toUnsignedLong(mappedBuffer.getInt(position));
+            if (ip < startIp) {
+                high = mid - 1;
+                continue;
+            }
+            long endIp = Integer.toUnsignedLong(mappedBuffer.getInt(position + 4));
+            if (ip > endIp) {
+                low = mid + 1;
+                continue;
+            }
+            return readRegion(mappedBuffer, mappedBuffer.getInt(position + 8));
+        }
+        return "";
+    }
+
+    /**
+     * 读取地区数据
+     *
+     * @param mappedBuffer 离线库内存映射
+     * @param offset       地区偏移
+     * @return {@link String} 地区
+     */
+    private String readRegion(MappedByteBuffer mappedBuffer, int offset) {
+        int length = Short.toUnsignedInt(mappedBuffer.getShort(offset));
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = mappedBuffer.get(offset + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 将ipv4地址转换为无符号整数
+     *
+     * @param ipAddress ip地址
+     * @return ip对应的整数，非法ipv4地址返回-1
+     */
+    private static long parseIpv4(String ipAddress) {
+        if (ipAddress == null || ipAddress.isEmpty()) {
+            return -1;
+        }
+        long result = 0;
+        int part = -1;
+        int dots = 0;
+        for (int i = 0; i < ipAddress.length(); i++) {
+            char c = ipAddress.charAt(i);
+            if (c == '.') {
+                if (part < 0 || ++dots > 3) {
+                    return -1;
+                }
+                result = (result << 8) | part;
+                part = -1;
+            } else if (c >= '0' && c <= '9') {
+                part = (part < 0 ? 0 : part * 10) + (c - '0');
+                if (part > 255) {
+                    return -1;
+                }
+            } else {
+                return -1;
+            }
+        }
+        if (part < 0 || dots != 3) {
+            return -1;
+        }
+        return (result << 8) | part;
+    }
+
+}
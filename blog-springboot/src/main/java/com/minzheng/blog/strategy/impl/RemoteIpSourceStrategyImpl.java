@@ -0,0 +1,52 @@
+package com.minzheng.blog.strategy.impl;
+
+import com.alibaba.fastjson.JSON;
+import com.minzheng.blog.strategy.IpSourceStrategy;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 远程接口ip解析策略
+ *
+ * @author yezhiqiu
+ * @date 2021/07/28
+ */
+@Service("remoteIpSourceStrategyImpl")
+@SuppressWarnings("all")
+public class RemoteIpSourceStrategyImpl implements IpSourceStrategy {
+
+    /**
+     * 连接及读取超时时间（毫秒）
+     */
+    private static final int TIMEOUT = 3000;
+
+    @Override
+    public String getIpSource(String ipAddress) {
+        try {
+            URL url = new URL("http://opendata.baidu.com/api.php?query=" + ipAddress + "&co=&resource_id=6006&oe=utf8");
+            URLConnection connection = url.openConnection();
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            StringBuilder result = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    result.append(line);
+                }
+            }
+            Map map = JSON.parseObject(result.toString(), Map.class);
+            List<Map<String, String>> data = (List) map.get("data");
+            return data.get(0).get("location");
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+}
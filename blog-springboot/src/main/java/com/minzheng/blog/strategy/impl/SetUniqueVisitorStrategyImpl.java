@@ -0,0 +1,62 @@
+package com.minzheng.blog.strategy.impl;
+
+import com.minzheng.blog.service.RedisService;
+import com.minzheng.blog.strategy.UniqueVisitorStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.minzheng.blog.constant.RedisPrefixConst.UNIQUE_VISITOR_SET_DAY;
+import static com.minzheng.blog.constant.RedisPrefixConst.UNIQUE_VISITOR_SET_HOUR;
+import static com.minzheng.blog.enums.ZoneEnum.SHANGHAI;
+
+/**
+ * redis集合访客统计策略，每天和每小时各一个集合，保留3天后自动过期
+ *
+ * @author yezhiqiu
+ * @date 2021/08/06
+ */
+@Service("setUniqueVisitorStrategyImpl")
+public class SetUniqueVisitorStrategyImpl implements UniqueVisitorStrategy {
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    /**
+     * 集合保留时间（秒）
+     */
+    private static final long EXPIRE_TIME = TimeUnit.DAYS.toSeconds(3);
+
+    @Autowired
+    private RedisService redisService;
+
+    @Override
+    public boolean addVisitor(String visitorId) {
+        LocalDateTime hour = LocalDateTime.now(ZoneId.of(SHANGHAI.getZone())).truncatedTo(ChronoUnit.HOURS);
+        List<Long> addList = redisService.sAddAll(Arrays.asList(
+                UNIQUE_VISITOR_SET_DAY + hour.format(DAY_FORMATTER),
+                UNIQUE_VISITOR_SET_HOUR + hour.format(HOUR_FORMATTER)), visitorId, EXPIRE_TIME);
+        return Optional.ofNullable(addList.get(0)).orElse(0L) > 0;
+    }
+
+    @Override
+    public long countVisitors(LocalDate date) {
+        return Optional.ofNullable(redisService.sSize(UNIQUE_VISITOR_SET_DAY + date.format(DAY_FORMATTER))).orElse(0L);
+    }
+
+    @Override
+    public long countHourVisitors(LocalDateTime hour) {
+        return Optional.ofNullable(redisService.sSize(UNIQUE_VISITOR_SET_HOUR + hour.format(HOUR_FORMATTER))).orElse(0L);
+    }
+
+}
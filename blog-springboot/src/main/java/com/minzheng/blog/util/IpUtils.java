@@ -1,16 +1,14 @@
 package com.minzheng.blog.util;
 
-import com.alibaba.fastjson.JSON;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
 import eu.bitwalker.useragentutils.UserAgent;
 
 import javax.servlet.http.HttpServletRequest;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.net.InetAddress;
-import java.net.URL;
 import java.net.UnknownHostException;
-import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * ip工具类
@@ -20,6 +18,25 @@ import java.util.Map;
 @SuppressWarnings("all")
 public class IpUtils {
 
+    /**
+     * 访问设备缓存容量
+     */
+    private static final int USER_AGENT_CACHE_CAPACITY = 4096;
+
+    /**
+     * 参与缓存的请求头最大长度
+     */
+    private static final int USER_AGENT_MAX_LENGTH = 512;
+
+    /**
+     * 请求头 -> 解析后的访问设备
+     */
+    private static final LRUCache<String, UserAgent> USER_AGENT_CACHE = CacheUtil.newLRUCache(USER_AGENT_CACHE_CAPACITY);
+
+    private static final LongAdder USER_AGENT_HIT_COUNT = new LongAdder();
+
+    private static final LongAdder USER_AGENT_MISS_COUNT = new LongAdder();
+
     /**
      * 获取用户ip地址
      *
@@ -63,37 +80,54 @@ public class IpUtils {
     }
 
     /**
-     * 解析ip地址
+     * 获取访问设备
      *
-     * @param ipAddress ip地址
-     * @return 解析后的ip地址
+     * @param request 请求
+     * @return {@link UserAgent} 访问设备
      */
-    public static String getIpSource(String ipAddress) {
-        try {
-            URL url = new URL("http://opendata.baidu.com/api.php?query=" + ipAddress + "&co=&resource_id=6006&oe=utf8");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(url.openConnection().getInputStream(), "utf-8"));
-            String line = null;
-            StringBuffer result = new StringBuffer();
-            while ((line = reader.readLine()) != null) {
-                result.append(line);
-            }
-            reader.close();
-            Map map = JSON.parseObject(result.toString(), Map.class);
-            List<Map<String, String>> data = (List) map.get("data");
-            return data.get(0).get("location");
-        } catch (Exception e) {
-            return "";
+    public static UserAgent getUserAgent(HttpServletRequest request){
+        String userAgentString = Objects.toString(request.getHeader("User-Agent"), "");
+        // 过长的请求头不缓存，避免占用缓存空间
+        if (userAgentString.length() > USER_AGENT_MAX_LENGTH) {
+            USER_AGENT_MISS_COUNT.increment();
+            return UserAgent.parseUserAgentString(userAgentString);
+        }
+        UserAgent userAgent = USER_AGENT_CACHE.get(userAgentString);
+        if (Objects.nonNull(userAgent)) {
+            USER_AGENT_HIT_COUNT.increment();
+            return userAgent;
         }
+        USER_AGENT_MISS_COUNT.increment();
+        userAgent = UserAgent.parseUserAgentString(userAgentString);
+        USER_AGENT_CACHE.put(userAgentString, userAgent);
+        return userAgent;
     }
 
     /**
-     * 获取访问设备
+     * 获取访问设备缓存命中次数
      *
-     * @param request 请求
-     * @return {@link UserAgent} 访问设备
+     * @return 命中次数
      */
-    public static UserAgent getUserAgent(HttpServletRequest request){
-        return UserAgent.parseUserAgentString(request.getHeader("User-Agent"));
+    public static long getUserAgentHitCount() {
+        return USER_AGENT_HIT_COUNT.sum();
+    }
+
+    /**
+     * 获取访问设备缓存未命中次数
+     *
+     * @return 未命中次数
+     */
+    public static long getUserAgentMissCount() {
+        return USER_AGENT_MISS_COUNT.sum();
+    }
+
+    /**
+     * 获取访问设备缓存条数
+     *
+     * @return 缓存条数
+     */
+    public static int getUserAgentCacheSize() {
+        return USER_AGENT_CACHE.size();
     }
 
 }
@@ -0,0 +1,147 @@
+package com.minzheng.blog.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 日志内容序列化工具类
+ * <p>
+ * 以流的方式序列化为json，超过字节上限的部分只计数不保存，避免为大请求生成完整的字符串。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@Slf4j
+public class LogPayloadUtils {
+
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json()
+            .failOnEmptyBeans(false)
+            .build();
+
+    /**
+     * 序列化请求参数，文件、流和servlet对象只记录类型
+     *
+     * @param args     请求参数
+     * @param maxBytes 字节上限
+     * @return {@link String} 序列化结果
+     */
+    public static String toArgsString(Object[] args, int maxBytes) {
+        List<Object> argList = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            argList.add(describe(arg));
+        }
+        return toJsonString(argList, maxBytes);
+    }
+
+    /**
+     * 序列化对象，超过上限时截断并注明原始大小
+     *
+     * @param value    对象
+     * @param maxBytes 字节上限
+     * @return {@link String} 序列化结果
+     */
+    public static String toJsonString(Object value, int maxBytes) {
+        BoundedWriter writer = new BoundedWriter(maxBytes);
+        try {
+            OBJECT_MAPPER.writeValue(writer, value);
+        } catch (IOException e) {
+            log.warn("日志内容序列化失败: {}", e.getMessage());
+            return "[serialize failed: " + e.getMessage() + "]";
+        }
+        return writer.toString();
+    }
+
+    /**
+     * 无法或不应序列化的参数替换为描述信息
+     *
+     * @param arg 参数
+     * @return 原参数或描述信息
+     */
+    private static Object describe(Object arg) {
+        if (arg instanceof MultipartFile) {
+            MultipartFile file = (MultipartFile) arg;
+            return "[MultipartFile " + file.getOriginalFilename() + ", " + file.getSize() + " bytes]";
+        }
+        if (arg instanceof InputStream || arg instanceof OutputStream || arg instanceof Reader
+                || arg instanceof Writer || arg instanceof ServletRequest || arg instanceof ServletResponse) {
+            return "[" + arg.getClass().getSimpleName() + "]";
+        }
+        return arg;
+    }
+
+    /**
+     * 按utf-8字节数计数的输出，超过上限后丢弃内容
+     */
+    private static class BoundedWriter extends Writer {
+
+        /**
+         * 字节上限
+         */
+        private final int maxBytes;
+
+        private final StringBuilder content;
+
+        /**
+         * 已保存的字节数
+         */
+        private int keptBytes;
+
+        /**
+         * 全部内容的字节数
+         */
+        private long totalBytes;
+
+        private boolean truncated;
+
+        BoundedWriter(int maxBytes) {
+            this.maxBytes = maxBytes;
+            this.content = new StringBuilder(Math.min(maxBytes, 256));
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                char c = cbuf[i];
+                int bytes = c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+                totalBytes += bytes;
+                if (!truncated && keptBytes + bytes <= maxBytes) {
+                    content.append(c);
+                    keptBytes += bytes;
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            if (!truncated) {
+                return content.toString();
+            }
+            // 避免截断在代理对中间
+            int length = content.length();
+            if (length > 0 && Character.isHighSurrogate(content.charAt(length - 1))) {
+                content.setLength(length - 1);
+            }
+            return content.append("...[truncated, ").append(totalBytes).append(" bytes]").toString();
+        }
+
+    }
+
+}
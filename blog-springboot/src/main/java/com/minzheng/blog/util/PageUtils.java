@@ -1,9 +1,18 @@
 package com.minzheng.blog.util;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.minzheng.blog.dto.CursorDTO;
+import com.minzheng.blog.exception.BizException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Objects;
 
+import static com.minzheng.blog.constant.CommonConst.NEXT_CURSOR;
+
 /**
  * 分页工具类
  *
@@ -15,6 +24,13 @@ public class PageUtils {
 
     private static final ThreadLocal<Page<?>> PAGE_HOLDER = new ThreadLocal<>();
 
+    private static final ThreadLocal<CursorDTO> CURSOR_HOLDER = new ThreadLocal<>();
+
+    /**
+     * 游标字段分隔符
+     */
+    private static final String CURSOR_SEPARATOR = "_";
+
     public static void setCurrentPage(Page<?> page) {
         PAGE_HOLDER.set(page);
     }
@@ -39,8 +55,73 @@ public class PageUtils {
         return (getCurrent() - 1) * getSize();
     }
 
+    public static void setCursor(CursorDTO cursor) {
+        CURSOR_HOLDER.set(cursor);
+    }
+
+    /**
+     * 获取当前游标，非游标分页时返回null
+     *
+     * @return {@link CursorDTO} 游标
+     */
+    public static CursorDTO getCursor() {
+        return CURSOR_HOLDER.get();
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 游标字符串
+     * @return {@link CursorDTO} 游标
+     */
+    public static CursorDTO decodeCursor(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = value.indexOf(CURSOR_SEPARATOR);
+            if (index < 0) {
+                return CursorDTO.builder().id(Integer.valueOf(value)).build();
+            }
+            return CursorDTO.builder()
+                    .isTop(Integer.valueOf(value.substring(0, index)))
+                    .id(Integer.valueOf(value.substring(index + 1)))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw new BizException("分页游标错误");
+        }
+    }
+
+    /**
+     * 生成游标
+     *
+     * @param isTop 最后一条记录的置顶状态，不按置顶排序时为null
+     * @param id    最后一条记录的id
+     * @return 游标字符串
+     */
+    public static String encodeCursor(Integer isTop, Integer id) {
+        String value = Objects.isNull(isTop) ? id.toString() : isTop + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 将下一页游标写入响应头
+     *
+     * @param isTop 最后一条记录的置顶状态，不按置顶排序时为null
+     * @param id    最后一条记录的id
+     */
+    public static void setNextCursor(Integer isTop, Integer id) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (Objects.isNull(attributes)) {
+            return;
+        }
+        HttpServletResponse response = attributes.getResponse();
+        if (Objects.nonNull(response)) {
+            response.setHeader(NEXT_CURSOR, encodeCursor(isTop, id));
+        }
+    }
+
     public static void remove() {
         PAGE_HOLDER.remove();
+        CURSOR_HOLDER.remove();
     }
 
 }
@@ -0,0 +1,106 @@
+package com.minzheng.blog.handler;
+
+import com.minzheng.blog.dto.UserDetailDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 访问决策基准测试
+ * <p>
+ * 对比 {@link AccessDecisionManagerImpl} 使用登录时生成的角色集合判断，与原先每次请求生成权限列表后逐个比较的方式，
+ * 以及复用 {@link UserDetailDTO#getAuthorities()} 缓存的权限逐个比较的方式。接口所需角色只有最后一个与用户角色匹配。
+ * 运行：执行 main 方法，或 mvn test-compile 后以 org.openjdk.jmh.Main 运行。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessDecisionManagerBenchmark {
+
+    @Param({"1", "5"})
+    private int roleCount;
+
+    @Param({"3"})
+    private int attributeCount;
+
+    private UserDetailDTO user;
+
+    private Collection<ConfigAttribute> attributes;
+
+    @Setup
+    public void setup() {
+        List<String> roleList = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            roleList.add("role" + i);
+        }
+        user = UserDetailDTO.builder()
+                .roleList(roleList)
+                .roleSet(Collections.unmodifiableSet(new HashSet<>(roleList)))
+                .build();
+        String[] attributeNames = new String[attributeCount];
+        for (int i = 0; i < attributeCount - 1; i++) {
+            attributeNames[i] = "resource" + i;
+        }
+        attributeNames[attributeCount - 1] = "role" + (roleCount - 1);
+        attributes = SecurityConfig.createList(attributeNames);
+    }
+
+    @Benchmark
+    public boolean roleSet() {
+        Set<String> roleSet = user.getRoleSet();
+        for (ConfigAttribute item : attributes) {
+            if (roleSet.contains(item.getAttribute())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean authorityScan() {
+        Collection<GrantedAuthority> authorities = user.getRoleSet().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toSet());
+        return scan(authorities);
+    }
+
+    @Benchmark
+    public boolean cachedAuthorityScan() {
+        return scan(user.getAuthorities());
+    }
+
+    private boolean scan(Collection<? extends GrantedAuthority> authorities) {
+        for (GrantedAuthority authority : authorities) {
+            for (ConfigAttribute item : attributes) {
+                if (authority.getAuthority().equals(item.getAttribute())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AccessDecisionManagerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.minzheng.blog.handler;
+
+import com.minzheng.blog.dto.ResourceRoleDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.CollectionUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口角色匹配基准测试
+ * <p>
+ * 对比预先构建的 {@link ResourceRoleMatcher} 与原先每次请求新建 AntPathMatcher 逐条匹配的方式。
+ * 资源由精确路径、带路径变量和通配符的路径混合组成，请求路径包含精确路径、带id的路径和未匹配的路径。
+ * 运行：执行 main 方法，或 mvn test-compile 后以 org.openjdk.jmh.Main 运行。
+ *
+ * @author yezhiqiu
+ * @date 2021/08/10
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceRoleMatcherBenchmark {
+
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+
+    @Param({"300"})
+    private int resourceCount;
+
+    private List<ResourceRoleDTO> resourceRoleList;
+
+    private ResourceRoleMatcher resourceRoleMatcher;
+
+    private String[][] requests;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        resourceRoleList = new ArrayList<>(resourceCount);
+        for (int i = 0; i < resourceCount; i++) {
+            String method = METHODS[i % METHODS.length];
+            switch (i % 3) {
+                case 0:
+                    resourceRoleList.add(resource(i, "/admin/module" + i + "/list", method));
+                    break;
+                case 1:
+                    resourceRoleList.add(resource(i, "/admin/module" + i + "/{id}", method));
+                    break;
+                default:
+                    resourceRoleList.add(resource(i, "/module" + i + "/**", method));
+                    break;
+            }
+        }
+        resourceRoleMatcher = new ResourceRoleMatcher(0, resourceRoleList);
+        Random random = new Random(1);
+        requests = new String[1024][];
+        for (int i = 0; i < requests.length; i++) {
+            int resource = random.nextInt(resourceCount);
+            String method = METHODS[resource % METHODS.length];
+            switch (random.nextInt(4)) {
+                case 0:
+                    requests[i] = new String[]{method, "/admin/module" + (resource - resource % 3) + "/list"};
+                    break;
+                case 1:
+                    requests[i] = new String[]{method, "/admin/module" + (resource - resource % 3 + 1) + "/" + random.nextInt(100000)};
+                    break;
+                case 2:
+                    requests[i] = new String[]{method, "/module" + (resource - resource % 3 + 2) + "/a/" + random.nextInt(100000)};
+                    break;
+                default:
+                    requests[i] = new String[]{method, "/not/found/" + random.nextInt(100000)};
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public Collection<ConfigAttribute> indexed() {
+        String[] request = nextRequest();
+        return resourceRoleMatcher.match(request[0], request[1]);
+    }
+
+    @Benchmark
+    public Collection<ConfigAttribute> linearScan() {
+        String[] request = nextRequest();
+        AntPathMatcher antPathMatcher = new AntPathMatcher();
+        for (ResourceRoleDTO resourceRoleDTO : resourceRoleList) {
+            if (antPathMatcher.match(resourceRoleDTO.getUrl(), request[1]) && resourceRoleDTO.getRequestMethod().equals(request[0])) {
+                List<String> roleList = resourceRoleDTO.getRoleList();
+                if (CollectionUtils.isEmpty(roleList)) {
+                    return SecurityConfig.createList("disable");
+                }
+                return SecurityConfig.createList(roleList.toArray(new String[]{}));
+            }
+        }
+        return null;
+    }
+
+    private String[] nextRequest() {
+        index = (index + 1) & (requests.length - 1);
+        return requests[index];
+    }
+
+    private static ResourceRoleDTO resource(int id, String url, String method) {
+        ResourceRoleDTO resourceRoleDTO = new ResourceRoleDTO();
+        resourceRoleDTO.setId(id);
+        resourceRoleDTO.setUrl(url);
+        resourceRoleDTO.setRequestMethod(method);
+        resourceRoleDTO.setRoleList(Collections.singletonList("admin"));
+        return resourceRoleDTO;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ResourceRoleMatcherBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}